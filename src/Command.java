@@ -0,0 +1,70 @@
+import Developer.Pose;
+
+import java.util.function.BooleanSupplier;
+
+// Description of an autonomous routine as a tree of commands. Nothing here runs anything:
+// CommandScheduler flattens the tree into pre-allocated arrays once and then advances it on sim time.
+//
+//   Command.sequence(
+//       Command.follow(pathing, start, shoot), Command.waitSeconds(0.5),
+//       Command.parallel(Command.follow(pathing, shoot, park), Command.run(intake::stop)));
+public final class Command {
+    enum Kind { SEQUENCE, PARALLEL, WAIT, FOLLOW, UNTIL, RUN }
+
+    final Kind kind;
+    final Command[] children;
+    final double seconds;           // WAIT
+    final OzPathing pathing;        // FOLLOW
+    final Pose start;               // FOLLOW
+    final Pose[] waypoints;         // FOLLOW, only the last one is stopped on
+    final BooleanSupplier condition; // UNTIL
+    final Runnable action;          // RUN
+
+    private Command(Kind kind, Command[] children, double seconds, OzPathing pathing, Pose start, Pose[] waypoints,
+                    BooleanSupplier condition, Runnable action) {
+        this.kind = kind;
+        this.children = children;
+        this.seconds = seconds;
+        this.pathing = pathing;
+        this.start = start;
+        this.waypoints = waypoints;
+        this.condition = condition;
+        this.action = action;
+    }
+
+    private static final Command[] NONE = new Command[0];
+
+    // children one after another; the next starts in the same tick the previous one finishes
+    public static Command sequence(Command... children) {
+        return new Command(Kind.SEQUENCE, children.clone(), 0, null, null, null, null, null);
+    }
+
+    // children side by side, done when all of them are
+    public static Command parallel(Command... children) {
+        return new Command(Kind.PARALLEL, children.clone(), 0, null, null, null, null, null);
+    }
+
+    public static Command waitSeconds(double seconds) {
+        return new Command(Kind.WAIT, NONE, seconds, null, null, null, null, null);
+    }
+
+    // OzPathing.followChain(start, waypoints), done once the pathing has stopped on the last waypoint
+    public static Command follow(OzPathing pathing, Pose start, Pose... waypoints) {
+        return new Command(Kind.FOLLOW, NONE, 0, pathing, start, waypoints.clone(), null, null);
+    }
+
+    // done as soon as condition is true
+    public static Command until(BooleanSupplier condition) {
+        return new Command(Kind.UNTIL, NONE, 0, null, null, null, condition, null);
+    }
+
+    // runs body, but finishes early (leaving body where it is) once condition is true
+    public static Command until(BooleanSupplier condition, Command body) {
+        return new Command(Kind.UNTIL, new Command[] { body }, 0, null, null, null, condition, null);
+    }
+
+    // one-shot action, done the tick it runs
+    public static Command run(Runnable action) {
+        return new Command(Kind.RUN, NONE, 0, null, null, null, null, action);
+    }
+}
@@ -0,0 +1,158 @@
+import Developer.Pose;
+
+import java.util.function.BooleanSupplier;
+
+// Runs a Command tree. The tree is flattened once into parallel arrays (node i's children are
+// childIndex[firstChild[i] .. firstChild[i] + childCount[i]]), per-node run state lives in more
+// arrays, so tick() allocates nothing. Only running nodes are visited: a sequence ticks its
+// current child, a parallel keeps its unfinished children compacted at the front of its slice of
+// running[] and ticks only those, so a tick is O(active commands).
+// Time comes in from the caller (SimClock), never from the wall clock, so a routine runs the same
+// under the Swing loop and headless as long as it is ticked at the same rate (Main ticks it every
+// CONTROL_DT in both).
+public class CommandScheduler {
+    private static final byte IDLE = 0, RUNNING = 1, DONE = 2;
+
+    // compiled graph
+    private final Command.Kind[] kind;
+    private final int[] firstChild, childCount, childIndex;
+    private final double[] seconds;
+    private final OzPathing[] pathing;
+    private final Pose[] start;
+    private final Pose[][] waypoints;
+    private final BooleanSupplier[] condition;
+    private final Runnable[] action;
+
+    // run state
+    private final byte[] status;
+    private final double[] startTime;
+    private final int[] cursor; // SEQUENCE: index of the running child, PARALLEL: how many are still running
+    private final int[] running; // PARALLEL: its unfinished children, same slots as childIndex, in order
+
+    private int nodes = 0, edges = 0;
+
+    public CommandScheduler(Command root) {
+        int n = count(root);
+        kind = new Command.Kind[n];
+        firstChild = new int[n];
+        childCount = new int[n];
+        childIndex = new int[Math.max(0, n - 1)];
+        seconds = new double[n];
+        pathing = new OzPathing[n];
+        start = new Pose[n];
+        waypoints = new Pose[n][];
+        condition = new BooleanSupplier[n];
+        action = new Runnable[n];
+        status = new byte[n];
+        startTime = new double[n];
+        cursor = new int[n];
+        running = new int[childIndex.length];
+        compile(root);
+    }
+
+    private static int count(Command c) {
+        int n = 1;
+        for (Command child : c.children) n += count(child);
+        return n;
+    }
+
+    // preorder; a node's children get contiguous slots in childIndex
+    private int compile(Command c) {
+        int id = nodes++;
+        kind[id] = c.kind;
+        seconds[id] = c.seconds;
+        pathing[id] = c.pathing;
+        start[id] = c.start;
+        waypoints[id] = c.waypoints;
+        condition[id] = c.condition;
+        action[id] = c.action;
+        firstChild[id] = edges;
+        childCount[id] = c.children.length;
+        edges += c.children.length;
+        for (int k = 0; k < c.children.length; k++) {
+            childIndex[firstChild[id] + k] = compile(c.children[k]);
+        }
+        return id;
+    }
+
+    // advances the routine to simTimeSec, true once the whole thing has finished
+    public boolean tick(double simTimeSec) {
+        if (status[0] == DONE) return true;
+        tick(0, simTimeSec);
+        return status[0] == DONE;
+    }
+
+    public boolean isFinished() {
+        return status[0] == DONE;
+    }
+
+    // back to the beginning, e.g. to run the same routine on a fresh robot
+    public void reset() {
+        java.util.Arrays.fill(status, IDLE);
+    }
+
+    public int size() {
+        return nodes;
+    }
+
+    private void tick(int id, double t) {
+        if (status[id] == IDLE) {
+            status[id] = RUNNING;
+            startTime[id] = t;
+            cursor[id] = 0;
+            if (kind[id] == Command.Kind.PARALLEL) {
+                System.arraycopy(childIndex, firstChild[id], running, firstChild[id], childCount[id]);
+                cursor[id] = childCount[id];
+            }
+            if (kind[id] == Command.Kind.FOLLOW) pathing[id].followChain(start[id], waypoints[id]);
+        }
+
+        switch (kind[id]) {
+            case RUN:
+                action[id].run();
+                status[id] = DONE;
+                break;
+
+            case WAIT:
+                if (t - startTime[id] >= seconds[id]) status[id] = DONE;
+                break;
+
+            case FOLLOW:
+                // OzPathing clears busy in its update once it has stopped on the last waypoint
+                if (!pathing[id].isBusy()) status[id] = DONE;
+                break;
+
+            case UNTIL:
+                if (condition[id].getAsBoolean()) {
+                    status[id] = DONE;
+                } else if (childCount[id] > 0) {
+                    int body = childIndex[firstChild[id]];
+                    tick(body, t);
+                    if (status[body] == DONE) status[id] = DONE;
+                }
+                break;
+
+            case SEQUENCE:
+                while (cursor[id] < childCount[id]) {
+                    int child = childIndex[firstChild[id] + cursor[id]];
+                    tick(child, t);
+                    if (status[child] != DONE) break;
+                    cursor[id]++; // next one starts this same tick
+                }
+                if (cursor[id] == childCount[id]) status[id] = DONE;
+                break;
+
+            case PARALLEL:
+                // tick the running ones in order, sliding the unfinished ones down over the finished
+                int first = firstChild[id], left = 0;
+                for (int k = 0; k < cursor[id]; k++) {
+                    int child = running[first + k];
+                    tick(child, t);
+                    if (status[child] != DONE) running[first + left++] = child;
+                }
+                cursor[id] = left;
+                if (left == 0) status[id] = DONE;
+                break;
+        }
+    }
+}
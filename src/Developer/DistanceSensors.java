@@ -0,0 +1,85 @@
+package Developer;
+
+import java.util.Arrays;
+
+// Distance sensors bolted to the robot, cast against a FieldGeometry.
+// Each mount is a position relative to the robot's centre (forward, left, in the robot frame) and a
+// pointing angle. Casting rotates the mounts by the robot's heading, one sin / cos per robot not per
+// sensor, and hands the whole set to FieldGeometry in one batch.
+// readings() is this object's scratch; for casting many poses at once (particles, a Monte Carlo
+// sweep) use fillRays into your own array and FieldGeometry.raycast(rays, n, ...) directly.
+public class DistanceSensors {
+    private static final int MOUNT = 4;   // forward, left, cos, sin
+    private static final int RAY = 4;     // ox, oy, dx, dy
+    private static final double HALF = FieldPanel.ROBOT_SIZE_UNITS / 2.0;
+
+    private final FieldGeometry field;
+    private final double maxRange;
+    private double[] mounts = new double[4 * MOUNT];
+    private int count = 0;
+    private double[] rays = new double[4 * RAY];
+    private double[] readings = new double[4];
+
+    public DistanceSensors(FieldGeometry field, double maxRange) {
+        this.field = field;
+        this.maxRange = maxRange;
+    }
+
+    // forward / left of the robot centre, angle in radians from straight ahead (counter-clockwise)
+    public DistanceSensors add(double forward, double left, double angle) {
+        if ((count + 1) * MOUNT > mounts.length) {
+            mounts = Arrays.copyOf(mounts, mounts.length * 2);
+            rays = Arrays.copyOf(rays, rays.length * 2);
+            readings = Arrays.copyOf(readings, readings.length * 2);
+        }
+        int b = count * MOUNT;
+        mounts[b] = forward;
+        mounts[b + 1] = left;
+        mounts[b + 2] = Math.cos(angle);
+        mounts[b + 3] = Math.sin(angle);
+        count++;
+        return this;
+    }
+
+    // one sensor in the middle of each side, pointing out
+    public static DistanceSensors fourSides(FieldGeometry field, double maxRange) {
+        return new DistanceSensors(field, maxRange)
+                .add(HALF, 0, 0)
+                .add(0, HALF, Math.PI / 2)
+                .add(-HALF, 0, Math.PI)
+                .add(0, -HALF, -Math.PI / 2);
+    }
+
+    public int size() { return count; }
+    public double getMaxRange() { return maxRange; }
+    public FieldGeometry getField() { return field; }
+
+    // world rays for a robot at (x, y, heading), x / y as Robot reports them, into rays[offset * 4 ..]
+    public void fillRays(double x, double y, double heading, double[] rays, int offset) {
+        double cx = x + HALF, cy = y + HALF;
+        double c = Math.cos(heading), s = Math.sin(heading);
+        for (int i = 0, m = 0, r = offset * RAY; i < count; i++, m += MOUNT, r += RAY) {
+            double f = mounts[m], l = mounts[m + 1], mc = mounts[m + 2], ms = mounts[m + 3];
+            rays[r] = cx + f * c - l * s;
+            rays[r + 1] = cy + f * s + l * c;
+            rays[r + 2] = mc * c - ms * s;
+            rays[r + 3] = mc * s + ms * c;
+        }
+    }
+
+    // casts every sensor, returns readings(): distance per sensor, maxRange when nothing is in range
+    public double[] cast(PoseSource robot) {
+        return cast(robot.getX(), robot.getY(), robot.getHeading());
+    }
+
+    public double[] cast(double x, double y, double heading) {
+        fillRays(x, y, heading, rays, 0);
+        field.raycast(rays, count, maxRange, readings);
+        return readings;
+    }
+
+    public double[] readings() { return readings; }
+
+    // the rays of the last cast(), ox, oy, dx, dy per sensor
+    public double[] rays() { return rays; }
+}
@@ -0,0 +1,224 @@
+package Developer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Walls and fixed field elements as line segments, for raycasting distance sensors.
+// Segments live in one flat double[] (x0, y0, dx, dy per segment). build() buckets them into a
+// uniform grid over the field, stored CSR style: cellStart[c] .. cellStart[c + 1] indexes cellSegs.
+// A ray walks the grid cell by cell (Amanatides-Woo) and only tests the segments in cells it crosses,
+// stopping at the first cell whose exit is past the best hit so far. No allocation per ray, and the
+// built geometry is read-only, so any number of threads can cast against one instance.
+// Coordinates are field units with (0,0) bottom-left, same as Pose.
+public class FieldGeometry {
+    public static final double FIELD = 144.0;
+    private static final int STRIDE = 4;
+    private static final double DEFAULT_CELL = 8.0;
+
+    private double[] segs = new double[16 * STRIDE];
+    private int count = 0;
+
+    private final double cellSize;
+    private final int cells; // per side
+    private int[] cellStart, cellSegs;
+    private boolean built = false;
+
+    public FieldGeometry() {
+        this(DEFAULT_CELL);
+    }
+
+    public FieldGeometry(double cellSize) {
+        this.cellSize = cellSize;
+        this.cells = (int) Math.ceil(FIELD / cellSize);
+    }
+
+    // the four walls and the two goals, same triangles as OccupancyGrid.decodeField. Only the goals'
+    // open faces are segments, their other two sides are on the walls
+    public static FieldGeometry decodeField() {
+        FieldGeometry g = new FieldGeometry();
+        g.addRect(0, 0, FIELD, FIELD);
+        double goal = 24.0;
+        g.addSegment(0, FIELD - goal, goal, FIELD);
+        g.addSegment(FIELD, FIELD - goal, FIELD - goal, FIELD);
+        g.build();
+        return g;
+    }
+
+    public void addSegment(double x0, double y0, double x1, double y1) {
+        if (count * STRIDE == segs.length) segs = Arrays.copyOf(segs, segs.length * 2);
+        int b = count * STRIDE;
+        segs[b] = x0;
+        segs[b + 1] = y0;
+        segs[b + 2] = x1 - x0;
+        segs[b + 3] = y1 - y0;
+        count++;
+        built = false;
+    }
+
+    // outline of an axis-aligned box, e.g. a fixed element or the field itself
+    public void addRect(double x0, double y0, double x1, double y1) {
+        addSegment(x0, y0, x1, y0);
+        addSegment(x1, y0, x1, y1);
+        addSegment(x1, y1, x0, y1);
+        addSegment(x0, y1, x0, y0);
+    }
+
+    // closed polygon from x0, y0, x1, y1, ...
+    public void addPolygon(double... xy) {
+        int n = xy.length / 2;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            addSegment(xy[2 * i], xy[2 * i + 1], xy[2 * j], xy[2 * j + 1]);
+        }
+    }
+
+    public int getSegmentCount() { return count; }
+
+    // buckets the segments; call after adding, before casting
+    public void build() {
+        int[] counts = new int[cells * cells + 1];
+        forEachCell(counts, null, null);
+        cellStart = new int[cells * cells + 1];
+        for (int c = 0; c < cells * cells; c++) cellStart[c + 1] = cellStart[c] + counts[c];
+        cellSegs = new int[cellStart[cells * cells]];
+        forEachCell(null, Arrays.copyOf(cellStart, cellStart.length), cellSegs);
+        built = true;
+    }
+
+    // every cell a segment's bounding box touches: count into counts, or write into out at fill
+    private void forEachCell(int[] counts, int[] fill, int[] out) {
+        for (int s = 0; s < count; s++) {
+            int b = s * STRIDE;
+            double x0 = segs[b], y0 = segs[b + 1], x1 = x0 + segs[b + 2], y1 = y0 + segs[b + 3];
+            int cx0 = cell(Math.min(x0, x1)), cx1 = cell(Math.max(x0, x1));
+            int cy0 = cell(Math.min(y0, y1)), cy1 = cell(Math.max(y0, y1));
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * cells + cx;
+                    if (counts != null) counts[c]++;
+                    else out[fill[c]++] = s;
+                }
+            }
+        }
+    }
+
+    private int cell(double v) {
+        int c = (int) Math.floor(v / cellSize);
+        return c < 0 ? 0 : (c >= cells ? cells - 1 : c);
+    }
+
+    // distance along the unit direction (dx, dy) to the first segment, maxRange if nothing is closer
+    public double raycast(double ox, double oy, double dx, double dy, double maxRange) {
+        if (!built) throw new IllegalStateException("FieldGeometry.build() not called");
+
+        // clip to the grid box, a sensor can sit just outside a wall
+        double tEnter = 0.0, tLeave = maxRange;
+        if (dx != 0) {
+            double a = (0 - ox) / dx, b = (FIELD - ox) / dx;
+            tEnter = Math.max(tEnter, Math.min(a, b));
+            tLeave = Math.min(tLeave, Math.max(a, b));
+        } else if (ox < 0 || ox > FIELD) {
+            return maxRange;
+        }
+        if (dy != 0) {
+            double a = (0 - oy) / dy, b = (FIELD - oy) / dy;
+            tEnter = Math.max(tEnter, Math.min(a, b));
+            tLeave = Math.min(tLeave, Math.max(a, b));
+        } else if (oy < 0 || oy > FIELD) {
+            return maxRange;
+        }
+        if (tEnter > tLeave) return maxRange;
+
+        int cx = cell(ox + dx * tEnter), cy = cell(oy + dy * tEnter);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1;
+        double tMaxX = dx != 0 ? ((cx + (dx > 0 ? 1 : 0)) * cellSize - ox) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? ((cy + (dy > 0 ? 1 : 0)) * cellSize - oy) / dy : Double.POSITIVE_INFINITY;
+        double tDeltaX = dx != 0 ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+
+        double best = maxRange;
+        while (true) {
+            int c = cy * cells + cx;
+            for (int k = cellStart[c], end = cellStart[c + 1]; k < end; k++) {
+                int b = cellSegs[k] * STRIDE;
+                double ex = segs[b + 2], ey = segs[b + 3];
+                double denom = dx * ey - dy * ex;
+                if (denom == 0) continue; // parallel
+                double px = segs[b] - ox, py = segs[b + 1] - oy;
+                double t = (px * ey - py * ex) / denom;
+                if (t < 0 || t >= best) continue;
+                double u = (px * dy - py * dx) / denom;
+                if (u >= 0 && u <= 1) best = t;
+            }
+            // a hit in a later cell can't beat one before this cell's exit
+            double exit = Math.min(tMaxX, tMaxY);
+            if (best <= exit || exit >= tLeave) return best;
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+            if (cx < 0 || cy < 0 || cx >= cells || cy >= cells) return best;
+        }
+    }
+
+    // rays as ox, oy, dx, dy (unit direction) per ray, distances into out[0 .. n)
+    public void raycast(double[] rays, int n, double maxRange, double[] out) {
+        for (int i = 0, b = 0; i < n; i++, b += STRIDE) {
+            out[i] = raycast(rays[b], rays[b + 1], rays[b + 2], rays[b + 3], maxRange);
+        }
+    }
+
+    // every segment, no grid: what raycast is checked against
+    double raycastBrute(double ox, double oy, double dx, double dy, double maxRange) {
+        double best = maxRange;
+        for (int s = 0; s < count; s++) {
+            int b = s * STRIDE;
+            double ex = segs[b + 2], ey = segs[b + 3];
+            double denom = dx * ey - dy * ex;
+            if (denom == 0) continue;
+            double px = segs[b] - ox, py = segs[b + 1] - oy;
+            double t = (px * ey - py * ex) / denom;
+            double u = (px * dy - py * dx) / denom;
+            if (t >= 0 && t < best && u >= 0 && u <= 1) best = t;
+        }
+        return best;
+    }
+
+    // grid vs brute force on random rays, then rays per second
+    public static void main(String[] args) {
+        FieldGeometry field = decodeField();
+        // a few extra elements so cells hold more than the walls
+        field.addRect(60, 60, 84, 84);
+        field.addPolygon(30, 90, 40, 100, 30, 110, 20, 100);
+        field.build();
+
+        SplittableRandom rng = new SplittableRandom(1);
+        int n = 1 << 16;
+        double[] rays = new double[n * STRIDE];
+        for (int i = 0; i < n; i++) {
+            double a = rng.nextDouble(2 * Math.PI);
+            rays[i * STRIDE] = rng.nextDouble(-2, FIELD + 2);
+            rays[i * STRIDE + 1] = rng.nextDouble(-2, FIELD + 2);
+            rays[i * STRIDE + 2] = Math.cos(a);
+            rays[i * STRIDE + 3] = Math.sin(a);
+        }
+        double[] out = new double[n];
+        field.raycast(rays, n, 200.0, out);
+        int mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            int b = i * STRIDE;
+            double brute = field.raycastBrute(rays[b], rays[b + 1], rays[b + 2], rays[b + 3], 200.0);
+            if (Math.abs(brute - out[i]) > 1e-9) mismatches++;
+        }
+
+        int rounds = 100;
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) field.raycast(rays, n, 200.0, out);
+        double sec = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d segments, %d mismatches vs brute force, %.1f M rays/s single thread%n",
+                field.getSegmentCount(), mismatches, (double) n * rounds / sec / 1e6);
+    }
+}
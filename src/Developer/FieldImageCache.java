@@ -0,0 +1,193 @@
+package Developer;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+// The field picture, rotated, decoded once per JVM and shared by every FieldPanel.
+// First start: ImageIO decode + 90 degree rotate as before, then the raw ARGB pixels are written to
+// FieldImage.argb next to FieldImage.png (or the temp dir when the png is inside a jar). Later starts
+// memory-map that file and copy the pixels straight into the image, no PNG decoding.
+// The cache is keyed on the png's size + timestamp, so replacing the png rebuilds it.
+//
+// File: int MAGIC, int VERSION, int width, int height, long png length, long png lastModified, width*height ARGB ints
+public final class FieldImageCache {
+    private static final String RESOURCE = "/Developer/FieldImage.png";
+    private static final int MAGIC = 0x4F5A4649; // "OZFI"
+    private static final int VERSION = 1;
+    private static final int HEADER = 4 * 4 + 8 * 2;
+
+    private static CompletableFuture<BufferedImage> shared;
+
+    private FieldImageCache() {
+    }
+
+    // starts the load on a background thread the first time, everyone gets the same image (null if missing)
+    public static synchronized CompletableFuture<BufferedImage> loadAsync() {
+        if (shared == null) {
+            shared = new CompletableFuture<>();
+            Thread t = new Thread(() -> {
+                try {
+                    shared.complete(load());
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    shared.complete(null);
+                }
+            }, "field-image-load");
+            t.setDaemon(true);
+            t.start();
+        }
+        return shared;
+    }
+
+    // blocks until loaded
+    public static BufferedImage get() {
+        return loadAsync().join();
+    }
+
+    static BufferedImage load() {
+        URL url = FieldImageCache.class.getResource(RESOURCE);
+        if (url == null) {
+            System.err.println("Could not find FieldImage.png on classpath");
+            return null;
+        }
+        Path cache = cachePath(url);
+        long length, modified;
+        try {
+            if ("file".equals(url.getProtocol())) {
+                Path png = cache.resolveSibling("FieldImage.png");
+                length = Files.size(png);
+                modified = Files.getLastModifiedTime(png).toMillis();
+            } else {
+                URLConnection conn = url.openConnection();
+                length = conn.getContentLengthLong();
+                modified = conn.getLastModified();
+                conn.getInputStream().close();
+            }
+        } catch (IOException e) {
+            length = -1; // can't tell if a cache is current, so don't use one
+            modified = -1;
+        }
+
+        BufferedImage cached = readCache(cache, length, modified);
+        if (cached != null) return cached;
+
+        BufferedImage image = decodeAndRotate(url);
+        if (image != null) writeCache(cache, image, length, modified);
+        return image;
+    }
+
+    static Path cachePath(URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return Paths.get(url.toURI()).resolveSibling("FieldImage.argb");
+            }
+        } catch (Exception ignored) {
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), "oz-FieldImage.argb");
+    }
+
+    private static BufferedImage readCache(Path cache, long length, long modified) {
+        if (length < 0 || !Files.isRegularFile(cache)) return null;
+        try (FileChannel ch = FileChannel.open(cache, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER) return null;
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) return null;
+            int w = map.getInt(), h = map.getInt();
+            if (map.getLong() != length || map.getLong() != modified) return null; // png changed
+            if (w <= 0 || h <= 0 || ch.size() != HEADER + 4L * w * h) return null;
+
+            BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            map.asIntBuffer().get(pixels); // the mapping goes away with the buffer, that's fine
+            return image;
+        } catch (IOException e) {
+            return null; // fall back to decoding
+        }
+    }
+
+    // best effort, a read-only classpath just means decoding every time
+    private static void writeCache(Path cache, BufferedImage image, long length, long modified) {
+        if (length < 0) return;
+        int w = image.getWidth(), h = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Path tmp = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + 4L * w * h);
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                map.putInt(MAGIC).putInt(VERSION).putInt(w).putInt(h).putLong(length).putLong(modified);
+                map.asIntBuffer().put(pixels);
+                map.force();
+            }
+            // readers never see a half written file
+            Files.move(tmp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // the png is stored sideways, rotate 90 degrees clockwise into an int ARGB image
+    private static BufferedImage decodeAndRotate(URL url) {
+        try (InputStream in = url.openStream()) {
+            BufferedImage original = javax.imageio.ImageIO.read(in);
+            int w = original.getWidth();
+            int h = original.getHeight();
+            BufferedImage rotated = new BufferedImage(h, w, BufferedImage.TYPE_INT_ARGB);
+
+            Graphics2D g2 = rotated.createGraphics();
+            AffineTransform at = new AffineTransform();
+            at.translate(h / 2.0, w / 2.0);
+            at.rotate(Math.PI / 2); // 90° clockwise
+            at.translate(-w / 2.0, -h / 2.0);
+            g2.drawRenderedImage(original, at);
+            g2.dispose();
+            return rotated;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not decode FieldImage.png", e);
+        }
+    }
+
+    // decode vs cached load, for comparing startup cost
+    public static void main(String[] args) {
+        URL url = FieldImageCache.class.getResource(RESOURCE);
+        long t0 = System.nanoTime();
+        BufferedImage decoded = decodeAndRotate(url);
+        long t1 = System.nanoTime();
+        load(); // writes the cache if it isn't there yet
+        long t2 = System.nanoTime();
+        BufferedImage cached = load();
+        long t3 = System.nanoTime();
+        boolean same = decoded.getWidth() == cached.getWidth() && decoded.getHeight() == cached.getHeight();
+        for (int y = 0; same && y < decoded.getHeight(); y++) {
+            for (int x = 0; x < decoded.getWidth(); x++) {
+                if (decoded.getRGB(x, y) != cached.getRGB(x, y)) {
+                    same = false;
+                    break;
+                }
+            }
+        }
+        System.out.printf("decode + rotate %.1f ms, first load %.1f ms, cached load %.1f ms, pixels %s, cache at %s%n",
+                (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6, same ? "identical" : "DIFFER", cachePath(url));
+    }
+}
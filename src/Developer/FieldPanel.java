@@ -4,12 +4,12 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JPanel;
 
 
@@ -17,6 +17,7 @@ public class FieldPanel extends JPanel {
     private static final int FIELD_UNITS = 144;
     public static final int ROBOT_SIZE_UNITS = 15;
     private static final int SCALE = 4;
+    public static final int FRAME_SIZE = FIELD_UNITS * SCALE; // preferred width and height in pixels
 
 
     private static final double FIELD_CENTER_X = FIELD_UNITS / 2.0;
@@ -26,52 +27,78 @@ public class FieldPanel extends JPanel {
 
     private boolean rotateLabels = false;
 
-    // background image (already rotated to correct orientation)
-    private BufferedImage fieldImage;
+    // background image (already rotated to correct orientation), shared with every other panel
+    private volatile BufferedImage fieldImage;
 
-    private List<Pose> poseMarkers = new ArrayList<>();
-    private List<Color> markerColors = new ArrayList<>();
+    private final PoseBuffer markers = new PoseBuffer();
+    private Color[] markerColors = new Color[16]; // one per marker
+
+    // background scaled to the panel once, not every frame
+    private BufferedImage scaledBackground;
+    // scaled background + border + markers; markPose draws into it, clearMarkers / resize rebuild it
+    private BufferedImage staticLayer;
+    private boolean staticLayerDirty = true;
+    // markers can be added from the simulation thread while the EDT paints
+    private final Object markerLock = new Object();
+
+    // when set, every robot is drawn from the loop's published snapshots instead of reading them live
+    private volatile SimulationLoop snapshotSource;
+
+    // when set, every robot in the match is drawn, not just this.robot
+    private volatile MatchWorld world;
+    private LoopTiming timing; // optional, times every paint
+    // when set, this panel's robot is drawn with its distance sensor rays
+    private volatile DistanceSensors sensors;
+    private double[] rayScratch = new double[0], rangeScratch = new double[0];
+    private static final Color RAY_COLOR = new Color(0, 220, 0);
+    private static final Color PLACEHOLDER_TILE = new Color(150, 150, 150);
+    private static final Color PLACEHOLDER_LINE = new Color(110, 110, 110);
+    private static final Color[] MATCH_COLORS = { Color.RED, Color.BLUE, Color.ORANGE, Color.CYAN };
+
+    // captureState layout per robot: x, y, heading, mFL, mFR, mBL, mBR, color index (-1 = this panel's robot)
+    public static final int STATE_STRIDE = 8;
+    public static final int MAX_DRAWN = MatchWorld.MAX_ROBOTS + 1;
+    private final double[] liveState = new double[MAX_DRAWN * STATE_STRIDE];
 
 
     public FieldPanel(Robot robot) {
         this.robot = robot;
-        setPreferredSize(new Dimension(FIELD_UNITS * SCALE, FIELD_UNITS * SCALE));
+        setPreferredSize(new Dimension(FRAME_SIZE, FRAME_SIZE));
 
         // optional fallback color while loading or if image fails
         setBackground(Color.BLACK);
 
-        loadAndRotateFieldImage();
+        loadFieldImage();
     }
 
-    private void loadAndRotateFieldImage() {
-        try {
-            // load from classpath root
-            // if FieldPanel is in a package, still use the leading "/" to search from root
-            java.io.InputStream in = getClass().getResourceAsStream("/Developer/FieldImage.png");
-            if (in == null) {
-                System.err.println("Could not find FieldImage.png on classpath");
-                fieldImage = null;
-                return;
+    // off the constructing thread; the placeholder grid shows until the picture is in
+    private void loadFieldImage() {
+        CompletableFuture<BufferedImage> load = FieldImageCache.loadAsync();
+        BufferedImage ready = load.getNow(null);
+        if (ready != null) {
+            fieldImage = ready;
+            return;
+        }
+        load.thenAccept(image -> {
+            if (image == null) return;
+            synchronized (markerLock) {
+                fieldImage = image;
+                scaledBackground = null;
+                staticLayerDirty = true;
             }
+            repaint();
+        });
+    }
 
-            BufferedImage original = javax.imageio.ImageIO.read(in);
-
-            int w = original.getWidth();
-            int h = original.getHeight();
-            BufferedImage rotated = new BufferedImage(h, w, original.getType());
-
-            Graphics2D g2 = rotated.createGraphics();
-            java.awt.geom.AffineTransform at = new java.awt.geom.AffineTransform();
-            at.translate(h / 2.0, w / 2.0);
-            at.rotate(Math.PI / 2); // 90° clockwise
-            at.translate(-w / 2.0, -h / 2.0);
-            g2.drawRenderedImage(original, at);
-            g2.dispose();
-
-            fieldImage = rotated;
-        } catch (Exception e) {
-            e.printStackTrace();
-            fieldImage = null;
+    // offscreen users want the real picture in their first frame
+    public void awaitFieldImage() {
+        BufferedImage image = FieldImageCache.get();
+        synchronized (markerLock) {
+            if (fieldImage != image) {
+                fieldImage = image;
+                scaledBackground = null;
+                staticLayerDirty = true;
+            }
         }
     }
 
@@ -80,47 +107,102 @@ public class FieldPanel extends JPanel {
         this.rotateLabels = rotateLabels;
     }
 
+    public void setTiming(LoopTiming timing) {
+        this.timing = timing;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
+        LoopTiming t = timing;
+        long t0 = t != null ? t.start() : 0;
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        paintTo((Graphics2D) g, getWidth(), getHeight());
+        if (t != null) t.stop(LoopTiming.PAINT, t0);
+    }
+
+    // the whole field onto any Graphics2D: the window, or a BufferedImage for offscreen frames.
+    // Robots are read now (interpolated if there's a snapshot source). Uses one scratch array, so
+    // one painting thread per panel
+    public void paintTo(Graphics2D g2, int width, int height) {
+        int n = captureState(liveState, true);
+        paintTo(g2, width, height, liveState, n);
+    }
 
+    // draws robots from a captureState() array, so the capture and the drawing can be on different threads
+    public void paintTo(Graphics2D g2, int width, int height, double[] state, int robots) {
         AffineTransform old = g2.getTransform();
 
-        // background first (unchanged)
-        if (fieldImage != null) {
-            g2.drawImage(fieldImage, 0, 0, getWidth(), getHeight(), null);
+        // everything that doesn't move comes from one cached image
+        synchronized (markerLock) {
+            g2.drawImage(getStaticLayer(width, height), 0, 0, null);
         }
 
-        // NEW: Flip Y only - (0,0) becomes bottom-left
-        g2.translate(0, FIELD_UNITS * SCALE);
-        g2.scale(1, -1);
+        DistanceSensors ds = sensors;
+        if (ds != null && robots > 0 && state[7] < 0) {
+            toWorld(g2);
+            drawRays(g2, ds, state[0], state[1], state[2]);
+            g2.setTransform(old);
+        }
 
-        // field border
-        g2.setColor(Color.GRAY);
-        g2.drawRect(0, 0, FIELD_UNITS * SCALE, FIELD_UNITS * SCALE);
+        for (int i = 0; i < robots; i++) {
+            int b = i * STATE_STRIDE;
+            int colorIndex = (int) state[b + 7];
+            toWorld(g2);
+            drawRobot(g2, old, height, state[b], state[b + 1], state[b + 2], state[b + 3], state[b + 4], state[b + 5],
+                    state[b + 6], colorIndex < 0 ? Color.RED : MATCH_COLORS[colorIndex % MATCH_COLORS.length]);
+        }
+    }
 
-        // DRAW POSE MARKERS IN WORLD COORDINATES (before transforming to robot space)
-        // This is the important change: draw markers in the flipped world coordinate system
-        // so they are not affected by the robot's translate/rotate transform.
-        for (int i = 0; i < poseMarkers.size(); i++) {
-            Pose p = poseMarkers.get(i);
-            Color c = markerColors.get(i);
+    // copies what paintTo draws into a STATE_STRIDE-per-robot array (MAX_DRAWN robots fit), returns the count.
+    // This panel's robot first. With a snapshot source it is the latest published step, otherwise live values
+    public int captureState(double[] into) {
+        return captureState(into, false);
+    }
 
-            g2.setColor(c);
-            int mx = (int) Math.round(p.x * SCALE);
-            int my = (int) Math.round(p.y * SCALE);
-            int markerSize = 8;
+    private int captureState(double[] into, boolean interpolate) {
+        // the sim thread owns the robots, so with a snapshot source nothing is read live
+        SimulationLoop source = snapshotSource;
+        if (source != null) {
+            WorldSnapshot snap = source.getSnapshot();
+            if (snap == null) return 0;
+            return snap.copyTo(into, interpolate ? snap.alpha(System.nanoTime(), source.getStepNanos()) : 1.0);
+        }
+        return fillState(into, robot, world);
+    }
 
-            // Optional: small circle
-            g2.fillOval(mx - 3, my - 3, 6, 6);
+    // robot, then every other robot of the match, read live; the caller must own them
+    static int fillState(double[] into, Robot robot, MatchWorld world) {
+        putRobot(into, 0, robot, -1);
+        int n = 1;
+        if (world != null) {
+            for (int i = 0; i < world.getRobotCount(); i++) {
+                Robot r = world.getRobot(i);
+                if (r == robot) continue;
+                putRobot(into, n++, r, i);
+            }
         }
+        return n;
+    }
 
+    private static void putRobot(double[] into, int slot, Robot r, int colorIndex) {
+        int b = slot * STATE_STRIDE;
+        into[b] = r.getX();
+        into[b + 1] = r.getY();
+        into[b + 2] = r.getHeading();
+        into[b + 3] = r.getMFL();
+        into[b + 4] = r.getMFR();
+        into[b + 5] = r.getMBL();
+        into[b + 6] = r.getMBR();
+        into[b + 7] = colorIndex;
+    }
+
+    // g2 must be in world coordinates, leaves it at old
+    private void drawRobot(Graphics2D g2, AffineTransform old, int height, double robotX, double robotY, double heading,
+                           double mFL, double mFR, double mBL, double mBR, Color body) {
         // robot drawing
         int rSize = ROBOT_SIZE_UNITS * SCALE;
-        double heading = robot.getHeading();
-        double cx = robot.getX() * SCALE + rSize / 2.0;
-        double cy = robot.getY() * SCALE + rSize / 2.0;
+        double cx = robotX * SCALE + rSize / 2.0;
+        double cy = robotY * SCALE + rSize / 2.0;
 
         // transform to robot center and rotate
         g2.translate(cx, cy);
@@ -129,19 +211,19 @@ public class FieldPanel extends JPanel {
         int half = rSize / 2;
 
         // robot body
-        g2.setColor(Color.RED);
+        g2.setColor(body);
         g2.fillRect(-half, -half, rSize, rSize);
 
         // direction line (front = +X in robot space)
         int lineLen = rSize / 2;
-        g2.setColor(Color.BLUE);
+        g2.setColor(Color.BLUE.equals(body) ? Color.WHITE : Color.BLUE);
         g2.drawLine(0, 0, lineLen, 0);
 
         // wheel numbers
-        String fl = String.format("%.2f", robot.getMFL());
-        String fr = String.format("%.2f", robot.getMFR());
-        String bl = String.format("%.2f", robot.getMBL());
-        String br = String.format("%.2f", robot.getMBR());
+        String fl = String.format("%.2f", mFL);
+        String fr = String.format("%.2f", mFR);
+        String bl = String.format("%.2f", mBL);
+        String br = String.format("%.2f", mBR);
 
         if (rotateLabels) {
             g2.setColor(Color.WHITE);
@@ -157,8 +239,8 @@ public class FieldPanel extends JPanel {
             // restore for upright labels and draw relative to axis-aligned box
             g2.setTransform(old);
             g2.setColor(Color.BLACK);
-            int rx = (int) (robot.getX() * SCALE);
-            int screenY = getHeight() - (int)(robot.getY() * SCALE) - rSize;
+            int rx = (int) (robotX * SCALE);
+            int screenY = height - (int)(robotY * SCALE) - rSize;
 
             // outside
             g2.drawString(fl, rx - 35,          screenY + 12);
@@ -169,16 +251,170 @@ public class FieldPanel extends JPanel {
             g2.setTransform(old);
         }
     }
+    // cast again from the pose being drawn, so the rays line up with an interpolated robot.
+    // g2 in world coordinates
+    private void drawRays(Graphics2D g2, DistanceSensors ds, double x, double y, double heading) {
+        int n = ds.size();
+        if (rangeScratch.length < n) {
+            rayScratch = new double[n * 4];
+            rangeScratch = new double[n];
+        }
+        ds.fillRays(x, y, heading, rayScratch, 0);
+        ds.getField().raycast(rayScratch, n, ds.getMaxRange(), rangeScratch);
+        g2.setColor(RAY_COLOR);
+        for (int i = 0; i < n; i++) {
+            int b = i * 4;
+            double ox = rayScratch[b], oy = rayScratch[b + 1], d = rangeScratch[i];
+            int hx = (int) Math.round((ox + rayScratch[b + 2] * d) * SCALE);
+            int hy = (int) Math.round((oy + rayScratch[b + 3] * d) * SCALE);
+            g2.drawLine((int) Math.round(ox * SCALE), (int) Math.round(oy * SCALE), hx, hy);
+            if (d < ds.getMaxRange()) g2.fillOval(hx - 2, hy - 2, 4, 4);
+        }
+    }
+
+    private BufferedImage getStaticLayer(int width, int height) {
+        int w = Math.max(1, width);
+        int h = Math.max(1, height);
+        if (staticLayer == null || staticLayer.getWidth() != w || staticLayer.getHeight() != h) {
+            staticLayer = createImage(w, h, Transparency.OPAQUE);
+            staticLayerDirty = true;
+        }
+        if (staticLayerDirty) {
+            Graphics2D g2 = staticLayer.createGraphics();
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, w, h);
+            BufferedImage bg = getScaledBackground(w, h);
+            if (bg != null) {
+                g2.drawImage(bg, 0, 0, null);
+            } else {
+                drawPlaceholder(g2, w, h);
+            }
+
+            toWorld(g2);
+            // field border
+            g2.setColor(Color.GRAY);
+            g2.drawRect(0, 0, FIELD_UNITS * SCALE, FIELD_UNITS * SCALE);
+            for (int i = 0; i < markers.size(); i++) {
+                drawMarker(g2, markers.x(i), markers.y(i), markerColors[i]);
+            }
+            g2.dispose();
+            staticLayerDirty = false;
+        }
+        return staticLayer;
+    }
+
+    // tile grid while the field picture is still loading
+    private static void drawPlaceholder(Graphics2D g2, int w, int h) {
+        g2.setColor(PLACEHOLDER_TILE);
+        g2.fillRect(0, 0, w, h);
+        g2.setColor(PLACEHOLDER_LINE);
+        for (int i = 1; i < 6; i++) {
+            g2.drawLine(i * w / 6, 0, i * w / 6, h);
+            g2.drawLine(0, i * h / 6, w, i * h / 6);
+        }
+    }
+
+    // rescales the field image only when the panel size changes
+    private BufferedImage getScaledBackground(int w, int h) {
+        if (fieldImage == null) return null;
+        if (scaledBackground == null || scaledBackground.getWidth() != w || scaledBackground.getHeight() != h) {
+            scaledBackground = createImage(w, h, Transparency.OPAQUE);
+            Graphics2D g2 = scaledBackground.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(fieldImage, 0, 0, w, h, null);
+            g2.dispose();
+        }
+        return scaledBackground;
+    }
+
+    // display-compatible when we have a screen, plain RGB offscreen / headless
+    private BufferedImage createImage(int w, int h, int transparency) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != null) {
+            return gc.createCompatibleImage(w, h, transparency);
+        }
+        return new BufferedImage(w, h, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    // Flip Y only - (0,0) becomes bottom-left
+    private static void toWorld(Graphics2D g2) {
+        g2.translate(0, FIELD_UNITS * SCALE);
+        g2.scale(1, -1);
+    }
+
+    private static void drawMarker(Graphics2D g2, double x, double y, Color c) {
+        g2.setColor(c);
+        int mx = (int) Math.round(x * SCALE);
+        int my = (int) Math.round(y * SCALE);
+
+        // Optional: small circle
+        g2.fillOval(mx - 3, my - 3, 6, 6);
+    }
+
     public void markPose(Pose pose, Color color) {
-        poseMarkers.add(pose);
-        markerColors.add(color != null ? color : Color.YELLOW);
+        Color c = color != null ? color : Color.YELLOW;
+        synchronized (markerLock) {
+            int first = addMarkers(1, c);
+            markers.append(pose);
+            drawNewMarkers(first);
+        }
         repaint();
     }
+
+    // a whole trace at once, one color
+    public void markPoses(PoseBuffer poses, Color color) {
+        Color c = color != null ? color : Color.YELLOW;
+        synchronized (markerLock) {
+            int first = addMarkers(poses.size(), c);
+            markers.appendAll(poses);
+            drawNewMarkers(first);
+        }
+        repaint();
+    }
+
+    // colors for n more markers, returns the index of the first
+    private int addMarkers(int n, Color c) {
+        int first = markers.size();
+        if (first + n > markerColors.length) {
+            markerColors = java.util.Arrays.copyOf(markerColors, Math.max(first + n, markerColors.length * 2));
+        }
+        java.util.Arrays.fill(markerColors, first, first + n, c);
+        return first;
+    }
+
+    // new markers go on top, so just draw them into the cached layer
+    private void drawNewMarkers(int first) {
+        if (staticLayer != null && !staticLayerDirty) {
+            Graphics2D g2 = staticLayer.createGraphics();
+            toWorld(g2);
+            for (int i = first; i < markers.size(); i++) drawMarker(g2, markers.x(i), markers.y(i), markerColors[i]);
+            g2.dispose();
+        }
+    }
+
     public void clearMarkers() {
-        poseMarkers.clear();
-        markerColors.clear();
+        synchronized (markerLock) {
+            markers.clear();
+            java.util.Arrays.fill(markerColors, null);
+            staticLayerDirty = true;
+        }
+        repaint();
+    }
+
+    // null turns the rays off
+    public void setSensors(DistanceSensors sensors) {
+        this.sensors = sensors;
         repaint();
     }
 
+    public void setWorld(MatchWorld world) {
+        this.world = world;
+    }
+
+    public void setSnapshotSource(SimulationLoop snapshotSource) {
+        this.snapshotSource = snapshotSource;
+    }
+
 
 }
\ No newline at end of file
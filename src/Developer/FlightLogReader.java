@@ -0,0 +1,190 @@
+package Developer;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Reads a FlightRecorder log back. Segments are mapped read-only and walked with a fixed stride,
+// so scanning a column over millions of ticks is a tight loop over mapped memory.
+public class FlightLogReader {
+    public interface RecordVisitor {
+        void visit(long tick, double[] row); // row is reused between calls, copy what you keep
+    }
+
+    private final String[] columns;
+    private final int firstBooleanColumn; // boolean channels are the columns from here on, stored as 0 / 1
+    private final int recordSize;
+    private final MappedByteBuffer[] segments; // oldest first
+    private final int[] counts;                // valid records per segment
+    private final long recordCount;
+
+    public FlightLogReader(Path dir, String name) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(FlightRecorder.headerPath(dir, name)))) {
+            if (in.readInt() != FlightRecorder.MAGIC) throw new IOException("not a flight log header");
+            int version = in.readInt();
+            if (version < 1 || version > FlightRecorder.VERSION) throw new IOException("unsupported flight log version " + version);
+            in.readInt(); // recordsPerSegment, segment size tells us the same thing
+            int maxSegments = in.readInt();
+            columns = new String[in.readInt()];
+            for (int i = 0; i < columns.length; i++) columns[i] = in.readUTF();
+            firstBooleanColumn = columns.length - (version >= 2 ? in.readInt() : 0);
+            recordSize = Long.BYTES + columns.length * Double.BYTES;
+
+            List<MappedByteBuffer> found = new ArrayList<>();
+            for (int slot = 0; slot < maxSegments; slot++) {
+                Path p = FlightRecorder.segmentPath(dir, name, slot);
+                if (!Files.exists(p)) continue;
+                try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+                    MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                    buf.order(ByteOrder.LITTLE_ENDIAN);
+                    if (buf.capacity() >= recordSize && buf.getLong(0) != 0) found.add(buf);
+                }
+            }
+            // ring order: by the first tick in each segment
+            found.sort(Comparator.comparingLong(b -> b.getLong(0)));
+            segments = found.toArray(new MappedByteBuffer[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not open flight log " + name, e);
+        }
+
+        counts = new int[segments.length];
+        long total = 0;
+        for (int s = 0; s < segments.length; s++) {
+            counts[s] = validRecords(segments[s]);
+            total += counts[s];
+        }
+        recordCount = total;
+    }
+
+    // records are written front to back, so binary search for the first unwritten one
+    private int validRecords(MappedByteBuffer buf) {
+        int lo = 0, hi = buf.capacity() / recordSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getLong(mid * recordSize) != 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public int columnIndex(String column) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(column)) return i;
+        }
+        throw new IllegalArgumentException("no column " + column + " in " + Arrays.toString(columns));
+    }
+
+    public boolean isBooleanColumn(int column) {
+        return column >= firstBooleanColumn;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // copies one column for every record (oldest first) into out, returns how many were written
+    public int readColumn(int column, double[] out) {
+        int offset = Long.BYTES + column * Double.BYTES;
+        int n = 0;
+        for (int s = 0; s < segments.length && n < out.length; s++) {
+            MappedByteBuffer buf = segments[s];
+            int count = Math.min(counts[s], out.length - n);
+            for (int r = 0, p = offset; r < count; r++, p += recordSize) {
+                out[n++] = buf.getDouble(p);
+            }
+        }
+        return n;
+    }
+
+    // a boolean channel's column for every record (oldest first), returns how many were written
+    public int readBooleanColumn(int column, boolean[] out) {
+        if (!isBooleanColumn(column)) throw new IllegalArgumentException(columns[column] + " is not a boolean column");
+        int offset = Long.BYTES + column * Double.BYTES;
+        int n = 0;
+        for (int s = 0; s < segments.length && n < out.length; s++) {
+            MappedByteBuffer buf = segments[s];
+            int count = Math.min(counts[s], out.length - n);
+            for (int r = 0, p = offset; r < count; r++, p += recordSize) {
+                out[n++] = buf.getDouble(p) != 0.0;
+            }
+        }
+        return n;
+    }
+
+    // the robot's x, y, heading for every record appended to out, returns how many
+    public int readTrace(PoseBuffer out) {
+        int x = Long.BYTES + columnIndex("x") * Double.BYTES;
+        int y = Long.BYTES + columnIndex("y") * Double.BYTES;
+        int h = Long.BYTES + columnIndex("heading") * Double.BYTES;
+        out.ensureCapacity(out.size() + (int) recordCount);
+        for (int s = 0; s < segments.length; s++) {
+            MappedByteBuffer buf = segments[s];
+            for (int r = 0, base = 0; r < counts[s]; r++, base += recordSize) {
+                out.append(buf.getDouble(base + x), buf.getDouble(base + y), buf.getDouble(base + h));
+            }
+        }
+        return (int) recordCount;
+    }
+
+    // min, max, mean of a column without materialising it
+    public double[] columnStats(int column) {
+        int offset = Long.BYTES + column * Double.BYTES;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+        for (int s = 0; s < segments.length; s++) {
+            MappedByteBuffer buf = segments[s];
+            for (int r = 0, p = offset; r < counts[s]; r++, p += recordSize) {
+                double v = buf.getDouble(p);
+                if (v < min) min = v;
+                if (v > max) max = v;
+                sum += v;
+            }
+        }
+        return new double[] { min, max, recordCount == 0 ? Double.NaN : sum / recordCount };
+    }
+
+    public void forEach(RecordVisitor visitor) {
+        double[] row = new double[columns.length];
+        for (int s = 0; s < segments.length; s++) {
+            MappedByteBuffer buf = segments[s];
+            for (int r = 0, base = 0; r < counts[s]; r++, base += recordSize) {
+                for (int c = 0, p = base + Long.BYTES; c < row.length; c++, p += Double.BYTES) {
+                    row[c] = buf.getDouble(p);
+                }
+                visitor.visit(buf.getLong(base) - 1, row);
+            }
+        }
+    }
+
+    // FlightLogReader <dir> <name> : prints a per-column summary of a log
+    public static void main(String[] args) {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "flightlogs");
+        String name = args.length > 1 ? args[1] : "run";
+        long t0 = System.nanoTime();
+        FlightLogReader reader = new FlightLogReader(dir, name);
+        System.out.printf("%d records, %d columns%n", reader.getRecordCount(), reader.columns.length);
+        for (int c = 0; c < reader.columns.length; c++) {
+            double[] st = reader.columnStats(c);
+            if (reader.isBooleanColumn(c)) {
+                System.out.printf("  %-20s true %.1f%% of ticks%n", reader.columns[c], 100.0 * st[2]);
+            } else {
+                System.out.printf("  %-20s min=%12.4f max=%12.4f mean=%12.4f%n", reader.columns[c], st[0], st[1], st[2]);
+            }
+        }
+        System.out.printf("scanned in %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+    }
+}
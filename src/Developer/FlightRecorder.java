@@ -0,0 +1,160 @@
+package Developer;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Appends every tick's robot state and telemetry channels to memory-mapped, fixed-width records.
+// Recording is a handful of stores into a mapped page, so it doesn't disturb the loop it watches.
+//
+// On disk: <name>.hdr describes the columns, <name>.<slot>.seg hold recordsPerSegment records each.
+// Once maxSegments are full the oldest slot is truncated and reused (ring buffer of segments).
+// Record = long tick + 1 (0 means never written) followed by one double per column: the robot columns,
+// the double channels, then the boolean channels as 0 / 1.
+// Header: MAGIC, VERSION, recordsPerSegment, maxSegments, columns, column names, boolean column count.
+public class FlightRecorder implements AutoCloseable {
+    static final int MAGIC = 0x4F5A464C; // "OZFL"
+    static final int VERSION = 2; // 2 added boolean channels, the last booleanColumns columns
+
+    static final String[] ROBOT_COLUMNS = {
+            "simTime", "x", "y", "heading", "vx", "vy", "omega", "mFL", "mFR", "mBL", "mBR"
+    };
+
+    private final Path dir;
+    private final String name;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+
+    private Robot robot;
+    // bound once, channels registered later are not recorded
+    private Telemetry.DoubleChannel[] channels;
+    private Telemetry.BooleanChannel[] flags;
+    private int recordSize;
+
+    private FileChannel segmentFile;
+    private MappedByteBuffer segment;
+    private int segmentSlot = -1;
+    private int recordInSegment;
+    private long tick;
+
+    public FlightRecorder(Path dir, String name) {
+        this(dir, name, 1 << 16, 64); // ~4M ticks before wrapping
+    }
+
+    public FlightRecorder(Path dir, String name, int recordsPerSegment, int maxSegments) {
+        this.dir = dir;
+        this.name = name;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxSegments = maxSegments;
+    }
+
+    // binds the columns and writes the header. call after the routine has registered its telemetry channels
+    public void attach(Robot robot, Telemetry telemetry) {
+        this.robot = robot;
+        List<Telemetry.DoubleChannel> list = telemetry != null ? telemetry.getDoubleChannels() : new ArrayList<>();
+        this.channels = list.toArray(new Telemetry.DoubleChannel[0]);
+        List<Telemetry.BooleanChannel> flagList = telemetry != null ? telemetry.getBooleanChannels() : new ArrayList<>();
+        this.flags = flagList.toArray(new Telemetry.BooleanChannel[0]);
+        int columns = ROBOT_COLUMNS.length + channels.length + flags.length;
+        this.recordSize = Long.BYTES + columns * Double.BYTES;
+
+        try {
+            Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(headerPath(dir, name)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(recordsPerSegment);
+                out.writeInt(maxSegments);
+                out.writeInt(columns);
+                for (String c : ROBOT_COLUMNS) out.writeUTF(c);
+                for (Telemetry.DoubleChannel ch : channels) out.writeUTF(ch.getLabel());
+                for (Telemetry.BooleanChannel ch : flags) out.writeUTF(ch.getLabel());
+                out.writeInt(flags.length);
+            }
+            // clear slots left over from an older recording with the same name
+            for (int slot = 0; slot < maxSegments; slot++) {
+                Files.deleteIfExists(segmentPath(dir, name, slot));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not start flight log " + name, e);
+        }
+        tick = 0;
+        segmentSlot = -1;
+        nextSegment();
+    }
+
+    public void record(double simTimeSec) {
+        if (recordInSegment == recordsPerSegment) nextSegment();
+        MappedByteBuffer buf = segment;
+        int base = recordInSegment * recordSize;
+        int p = base + Long.BYTES;
+        buf.putDouble(p, simTimeSec);
+        buf.putDouble(p += 8, robot.getX());
+        buf.putDouble(p += 8, robot.getY());
+        buf.putDouble(p += 8, robot.getHeading());
+        buf.putDouble(p += 8, robot.getVX());
+        buf.putDouble(p += 8, robot.getVY());
+        buf.putDouble(p += 8, robot.getOmega());
+        buf.putDouble(p += 8, robot.getMFL());
+        buf.putDouble(p += 8, robot.getMFR());
+        buf.putDouble(p += 8, robot.getMBL());
+        buf.putDouble(p += 8, robot.getMBR());
+        for (Telemetry.DoubleChannel ch : channels) {
+            buf.putDouble(p += 8, ch.get());
+        }
+        for (Telemetry.BooleanChannel ch : flags) {
+            buf.putDouble(p += 8, ch.get() ? 1.0 : 0.0);
+        }
+        // tick goes in last so a half-written record never looks valid
+        buf.putLong(base, ++tick);
+        recordInSegment++;
+    }
+
+    public long getTicksRecorded() {
+        return tick;
+    }
+
+    private void nextSegment() {
+        try {
+            if (segmentFile != null) segmentFile.close(); // mapping stays valid until GC, that's fine
+            segmentSlot = (segmentSlot + 1) % maxSegments;
+            segmentFile = FileChannel.open(segmentPath(dir, name, segmentSlot),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // truncating zeroes a reused slot without touching every page
+            segmentFile.truncate(0);
+            segment = segmentFile.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * recordSize);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            recordInSegment = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not map flight log segment " + segmentSlot, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (segment != null) segment.force();
+            if (segmentFile != null) segmentFile.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segment = null;
+        segmentFile = null;
+    }
+
+    static Path headerPath(Path dir, String name) {
+        return dir.resolve(name + ".hdr");
+    }
+
+    static Path segmentPath(Path dir, String name, int slot) {
+        return dir.resolve(name + "." + slot + ".seg");
+    }
+}
@@ -0,0 +1,251 @@
+package Developer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes a run out as pictures: <name>_000000.png ... or one animated <name>.gif.
+//   sim thread     capture(): copies the robot states into a pooled slot, nothing else
+//   render thread  paints the slot into a pooled BufferedImage with FieldPanel.paintTo
+//   encoder pool   PNG-encodes it, or reduces it to 8 bit for the GIF writer thread (frames kept in order)
+// Slots and images are fixed pools of queueFrames, that's the back-pressure: with waitWhenFull a headless
+// run just slows to the encoders' pace and keeps every frame, otherwise capture() drops the frame and
+// returns, so a real-time loop is never held up. Give the exporter its own FieldPanel, the panel's
+// cached layers are sized for one output.
+public class FrameExporter implements AutoCloseable {
+    public enum Format { PNG, GIF }
+
+    private static final class Frame {
+        final double[] state = new double[FieldPanel.MAX_DRAWN * FieldPanel.STATE_STRIDE];
+        int robots;
+        long index;
+    }
+
+    private static final Frame END = new Frame();
+    private static final Future<BufferedImage> GIF_END = CompletableFuture.completedFuture(null);
+
+    private final FieldPanel panel;
+    private final Path dir;
+    private final String name;
+    private final Format format;
+    private final boolean waitWhenFull;
+    private final int size;
+    private final int gifDelayCs; // hundredths of a second per frame
+
+    private final BlockingQueue<Frame> freeFrames, readyFrames;
+    private final BlockingQueue<BufferedImage> freeImages;
+    private final ExecutorService encoders;
+    private final Thread renderThread;
+    private BlockingQueue<Future<BufferedImage>> gifOrder;
+    private Thread gifThread;
+
+    private long captured = 0, dropped = 0;
+    private final AtomicLong written = new AtomicLong();
+    private volatile IOException failure;
+
+    public FrameExporter(FieldPanel panel, Path dir, String name, Format format) {
+        this(panel, dir, name, format, 16, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), true, 0.1);
+    }
+
+    // frameSec is how long each frame shows in the GIF (simulated time between captures)
+    public FrameExporter(FieldPanel panel, Path dir, String name, Format format, int queueFrames, int encoderThreads,
+                         boolean waitWhenFull, double frameSec) {
+        this.panel = panel;
+        this.dir = dir;
+        this.name = name;
+        this.format = format;
+        this.waitWhenFull = waitWhenFull;
+        this.size = FieldPanel.FRAME_SIZE;
+        this.gifDelayCs = (int) Math.max(1, Math.round(frameSec * 100));
+        panel.awaitFieldImage();
+
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not create " + dir, e);
+        }
+
+        freeFrames = new ArrayBlockingQueue<>(queueFrames);
+        readyFrames = new ArrayBlockingQueue<>(queueFrames + 1); // + END
+        freeImages = new ArrayBlockingQueue<>(queueFrames);
+        for (int i = 0; i < queueFrames; i++) {
+            freeFrames.add(new Frame());
+            freeImages.add(new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB));
+        }
+
+        encoders = Executors.newFixedThreadPool(encoderThreads, r -> {
+            Thread t = new Thread(r, "frame-encoder");
+            t.setDaemon(true);
+            return t;
+        });
+        if (format == Format.GIF) {
+            gifOrder = new LinkedBlockingQueue<>();
+            gifThread = new Thread(this::gifLoop, "frame-gif-writer");
+            gifThread.setDaemon(true);
+            gifThread.start();
+        }
+        renderThread = new Thread(this::renderLoop, "frame-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    // sim thread, call on the ticks you want a picture of. false if the frame was dropped
+    public boolean capture() {
+        Frame f = freeFrames.poll();
+        if (f == null && waitWhenFull) {
+            try {
+                f = freeFrames.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (f == null) {
+            dropped++;
+            return false;
+        }
+        f.robots = panel.captureState(f.state);
+        f.index = captured++;
+        readyFrames.add(f);
+        return true;
+    }
+
+    private void renderLoop() {
+        try {
+            while (true) {
+                Frame f = readyFrames.take();
+                if (f == END) break;
+                BufferedImage img = freeImages.take();
+                Graphics2D g2 = img.createGraphics();
+                panel.paintTo(g2, size, size, f.state, f.robots);
+                g2.dispose();
+                long index = f.index;
+                freeFrames.add(f);
+                if (format == Format.PNG) {
+                    encoders.execute(() -> writePng(img, index));
+                } else {
+                    gifOrder.add(encoders.submit(() -> toIndexed(img)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePng(BufferedImage img, long index) {
+        try {
+            ImageIO.write(img, "png", dir.resolve(String.format("%s_%06d.png", name, index)).toFile());
+            written.incrementAndGet();
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            freeImages.add(img);
+        }
+    }
+
+    // the slow part of GIF encoding is getting down to 256 colors, so that runs on the pool
+    private BufferedImage toIndexed(BufferedImage img) {
+        BufferedImage indexed = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_INDEXED);
+        Graphics2D g2 = indexed.createGraphics();
+        g2.drawImage(img, 0, 0, null);
+        g2.dispose();
+        freeImages.add(img);
+        return indexed;
+    }
+
+    private void gifLoop() {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(dir.resolve(name + ".gif").toFile())) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            boolean first = true;
+            while (true) {
+                BufferedImage img = gifOrder.take().get();
+                if (img == null) break;
+                writer.writeToSequence(new IIOImage(img, null, gifMetadata(writer, img, first)), null);
+                first = false;
+                written.incrementAndGet();
+            }
+            writer.endWriteSequence();
+        } catch (IOException e) {
+            failure = e;
+        } catch (Exception e) {
+            failure = new IOException("gif writer failed", e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private IIOMetadata gifMetadata(ImageWriter writer, BufferedImage img, boolean first) throws IOException {
+        IIOMetadata meta = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(img), null);
+        String format = meta.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(format);
+
+        IIOMetadataNode gce = child(root, "GraphicControlExtension");
+        gce.setAttribute("disposalMethod", "none");
+        gce.setAttribute("userInputFlag", "FALSE");
+        gce.setAttribute("transparentColorFlag", "FALSE");
+        gce.setAttribute("delayTime", Integer.toString(gifDelayCs));
+        gce.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            // NETSCAPE2.0 block: loop forever
+            IIOMetadataNode app = new IIOMetadataNode("ApplicationExtension");
+            app.setAttribute("applicationID", "NETSCAPE");
+            app.setAttribute("authenticationCode", "2.0");
+            app.setUserObject(new byte[] { 1, 0, 0 });
+            child(root, "ApplicationExtensions").appendChild(app);
+        }
+        meta.setFromTree(format, root);
+        return meta;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) return (IIOMetadataNode) parent.item(i);
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    public long getCaptured() { return captured; }
+    public long getDropped() { return dropped; }
+    public long getWritten() { return written.get(); }
+
+    // waits for every captured frame to be written
+    @Override
+    public void close() {
+        try {
+            readyFrames.put(END);
+            renderThread.join();
+            encoders.shutdown();
+            encoders.awaitTermination(1, TimeUnit.HOURS);
+            if (gifThread != null) {
+                gifOrder.add(GIF_END);
+                gifThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw new UncheckedIOException("could not write frames of " + name, failure);
+    }
+}
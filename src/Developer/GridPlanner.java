@@ -0,0 +1,367 @@
+package Developer;
+
+// A* over an (inflated) OccupancyGrid, 8-connected with no corner cutting, with jump point search:
+// instead of pushing every neighbour, a node scans straight / diagonal runs of free cells and only
+// the cells where the path could have to turn (jump points) go on the open list. Same shortest paths
+// as plain A*, but across open floor a few dozen nodes are expanded instead of thousands.
+// Every per-node array is sized to the grid up front and reset with a generation stamp instead
+// of being cleared, and the open set is an indexed binary heap over those arrays, so plan()
+// allocates nothing after construction. The scans read a copy of the grid with a blocked border
+// (refreshed when the grid changes), so each cell is one array load with no bounds checks.
+// The jump points are then string-pulled down to the few corners that matter, which is what
+// OzPathing.followChain wants.
+// Not thread safe: one planner per thread.
+public class GridPlanner {
+    private static final int STRAIGHT = 10, DIAGONAL = 14; // integer costs, ~1 : sqrt(2)
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+    private static final int ESCAPE_RADIUS = 16; // cells searched for a free cell when start / goal is inside an obstacle
+
+    private final OccupancyGrid grid;
+    private final int width, height;
+
+    // the grid as one boolean per cell with a blocked border, index (cy + 1) * padWidth + cx + 1
+    private final boolean[] blocked;
+    private final int padWidth;
+    private int copiedModCount = -1;
+    private int goalPad;
+
+    // node pool, indexed by cell = cy * width + cx
+    private final int[] g, f, parent;
+    private final int[] seen;   // == generation when g / f / parent are valid for this plan
+    private final int[] closed; // == generation once expanded
+    private int generation = 0;
+
+    // indexed min-heap on f (ties -> larger g), heapPos[cell] valid while the cell is open
+    private final int[] heap, heapPos;
+    private int heapSize;
+
+    // results
+    private final int[] cellPath, turnCells;
+    private final double[] wayX, wayY;
+    private int wayCount;
+    private int expanded;
+    private int pathCost;
+    private int bestFree, bestFreeD; // freeCellNear scratch
+
+    public GridPlanner(OccupancyGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int n = width * height;
+        g = new int[n];
+        f = new int[n];
+        parent = new int[n];
+        seen = new int[n];
+        closed = new int[n];
+        heap = new int[n];
+        heapPos = new int[n];
+        cellPath = new int[n];
+        turnCells = new int[n];
+        wayX = new double[n + 2];
+        wayY = new double[n + 2];
+        padWidth = width + 2;
+        blocked = new boolean[padWidth * (height + 2)];
+    }
+
+    private void refreshCopy() {
+        if (copiedModCount == grid.getModCount()) return;
+        java.util.Arrays.fill(blocked, true);
+        for (int cy = 0; cy < height; cy++) {
+            for (int cx = 0; cx < width; cx++) blocked[(cy + 1) * padWidth + cx + 1] = grid.isBlocked(cy * width + cx);
+        }
+        copiedModCount = grid.getModCount();
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    // Plans the robot center from (sx, sy) to (tx, ty). Returns the number of waypoints
+    // (the goal itself is the last one, the start is not included) or -1 if there is no path.
+    public int plan(double sx, double sy, double tx, double ty) {
+        wayCount = 0;
+        expanded = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(seen, 0);
+            java.util.Arrays.fill(closed, 0);
+            generation = 1;
+        }
+
+        refreshCopy();
+        int start = freeCellNear(grid.toCellX(sx), grid.toCellY(sy));
+        int goal = freeCellNear(grid.toCellX(tx), grid.toCellY(ty));
+        if (start < 0 || goal < 0) return -1;
+        int goalX = goal % width, goalY = goal / width;
+        goalPad = (goalY + 1) * padWidth + goalX + 1;
+
+        heapSize = 0;
+        open(start, 0, heuristic(start % width, start / width, goalX, goalY), -1);
+
+        boolean found = false;
+        while (heapSize > 0) {
+            int cur = pop();
+            if (cur == goal) {
+                found = true;
+                break;
+            }
+            closed[cur] = generation;
+            expanded++;
+            int cx = cur % width, cy = cur / width;
+            int from = parent[cur];
+            if (from < 0) {
+                for (int k = 0; k < 8; k++) {
+                    if (canStep(cx, cy, DX[k], DY[k])) successor(cur, cx, cy, DX[k], DY[k], goal);
+                }
+                continue;
+            }
+            // pruned neighbours: only directions an optimal path through cur could continue in
+            int dx = Integer.signum(cx - from % width), dy = Integer.signum(cy - from / width);
+            if (dx != 0 && dy != 0) {
+                boolean h = free(cx + dx, cy), v = free(cx, cy + dy);
+                if (v) successor(cur, cx, cy, 0, dy, goal);
+                if (h) successor(cur, cx, cy, dx, 0, goal);
+                if (h && v) successor(cur, cx, cy, dx, dy, goal);
+            } else if (dx != 0) {
+                boolean next = free(cx + dx, cy), up = free(cx, cy + 1), down = free(cx, cy - 1);
+                if (next) {
+                    successor(cur, cx, cy, dx, 0, goal);
+                    if (up) successor(cur, cx, cy, dx, 1, goal);
+                    if (down) successor(cur, cx, cy, dx, -1, goal);
+                }
+                if (up) successor(cur, cx, cy, 0, 1, goal);
+                if (down) successor(cur, cx, cy, 0, -1, goal);
+            } else {
+                boolean next = free(cx, cy + dy), right = free(cx + 1, cy), left = free(cx - 1, cy);
+                if (next) {
+                    successor(cur, cx, cy, 0, dy, goal);
+                    if (right) successor(cur, cx, cy, 1, dy, goal);
+                    if (left) successor(cur, cx, cy, -1, dy, goal);
+                }
+                if (right) successor(cur, cx, cy, 1, 0, goal);
+                if (left) successor(cur, cx, cy, -1, 0, goal);
+            }
+        }
+        if (!found) return -1;
+
+        // walk the jump points back to the start; every one in between is a possible corner
+        int len = 0;
+        for (int c = goal; c >= 0; c = parent[c]) cellPath[len++] = c;
+        pathCost = g[goal];
+
+        // string pull: keep a jump point when the straight line from the last corner to the next
+        // candidate is blocked
+        int turns = 0;
+        for (int i = len - 2; i >= 1; i--) turnCells[turns++] = cellPath[i];
+        double ax = grid.cellCenterX(start % width), ay = grid.cellCenterY(start / width);
+        if (start != grid.toCellY(sy) * width + grid.toCellX(sx)) addWaypoint(ax, ay); // escaped out of an obstacle first
+        for (int i = 0; i < turns; i++) {
+            int next = i + 1 < turns ? turnCells[i + 1] : goal;
+            if (!lineOfSight(ax, ay, grid.cellCenterX(next % width), grid.cellCenterY(next / width))) {
+                ax = grid.cellCenterX(turnCells[i] % width);
+                ay = grid.cellCenterY(turnCells[i] / width);
+                addWaypoint(ax, ay);
+            }
+        }
+        if (goal != grid.toCellY(ty) * width + grid.toCellX(tx)) addWaypoint(grid.cellCenterX(goalX), grid.cellCenterY(goalY));
+        addWaypoint(tx, ty);
+        return wayCount;
+    }
+
+    // waypoints for OzPathing.followChain: corners take the goal heading, the goal is returned as-is
+    public Pose[] planPoses(Pose start, Pose goal) {
+        int n = plan(start.x, start.y, goal.x, goal.y);
+        if (n < 0) return null;
+        Pose[] out = new Pose[n];
+        for (int i = 0; i < n - 1; i++) out[i] = new Pose(wayX[i], wayY[i], goal.heading);
+        out[n - 1] = goal;
+        return out;
+    }
+
+    // same route appended to out without making Pose objects, false if there is none
+    public boolean planInto(Pose start, Pose goal, PoseBuffer out) {
+        int n = plan(start.x, start.y, goal.x, goal.y);
+        if (n < 0) return false;
+        out.ensureCapacity(out.size() + n);
+        for (int i = 0; i < n - 1; i++) out.append(wayX[i], wayY[i], goal.heading);
+        out.append(goal);
+        return true;
+    }
+
+    public int getWaypointCount() { return wayCount; }
+    public double getWaypointX(int i) { return wayX[i]; }
+    public double getWaypointY(int i) { return wayY[i]; }
+    public int getExpandedCount() { return expanded; } // jump points closed by the last plan
+    int getPathCost() { return pathCost; } // in STRAIGHT / DIAGONAL units
+
+    private void addWaypoint(double x, double y) {
+        wayX[wayCount] = x;
+        wayY[wayCount] = y;
+        wayCount++;
+    }
+
+    private boolean free(int cx, int cy) {
+        return !blocked[(cy + 1) * padWidth + cx + 1];
+    }
+
+    // one step, diagonals only with both sides open
+    private boolean canStep(int cx, int cy, int dx, int dy) {
+        if (!free(cx + dx, cy + dy)) return false;
+        return dx == 0 || dy == 0 || (free(cx + dx, cy) && free(cx, cy + dy));
+    }
+
+    // jump from cur in (dx, dy) and open / relax whatever jump point that lands on
+    private void successor(int cur, int cx, int cy, int dx, int dy, int goal) {
+        int p = jump((cy + 1) * padWidth + cx + 1, dx, dy);
+        if (p < 0) return;
+        int nx = p % padWidth - 1, ny = p / padWidth - 1;
+        int next = ny * width + nx;
+        if (closed[next] == generation) return;
+        int ng = g[cur] + heuristic(cx, cy, nx, ny); // straight or diagonal run, so octile is exact
+        if (seen[next] != generation) {
+            open(next, ng, ng + heuristic(nx, ny, goal % width, goal / width), cur);
+        } else if (ng < g[next]) {
+            f[next] -= g[next] - ng;
+            g[next] = ng;
+            parent[next] = cur;
+            siftUp(heapPos[next]);
+        }
+    }
+
+    // From padded index p in (dx, dy) until the goal, a dead end (-1), or a cell where the path might
+    // have to turn. Diagonals (both sides must be open) stop where one of their straight runs does
+    private int jump(int p, int dx, int dy) {
+        if (dx == 0 || dy == 0) return jumpStraight(p, dy * padWidth + dx);
+        int step = dy * padWidth + dx, vertical = dy * padWidth;
+        while (true) {
+            if (blocked[p + step] || blocked[p + dx] || blocked[p + vertical]) return -1;
+            p += step;
+            if (p == goalPad) return p;
+            if (jumpStraight(p, dx) >= 0 || jumpStraight(p, vertical) >= 0) return p;
+        }
+    }
+
+    // straight run: stops where a cell beside it opens up that the previous cell couldn't step to
+    private int jumpStraight(int p, int step) {
+        int side = step == 1 || step == -1 ? padWidth : 1;
+        while (true) {
+            if (blocked[p + step]) return -1;
+            p += step;
+            if (p == goalPad) return p;
+            if ((!blocked[p - side] && blocked[p - side - step]) || (!blocked[p + side] && blocked[p + side - step])) {
+                return p;
+            }
+        }
+    }
+
+    // octile distance in the same integer units as the step costs
+    private static int heuristic(int x, int y, int gx, int gy) {
+        int dx = Math.abs(x - gx), dy = Math.abs(y - gy);
+        return STRAIGHT * (dx + dy) + (DIAGONAL - 2 * STRAIGHT) * Math.min(dx, dy);
+    }
+
+    // walks every cell the segment touches (Amanatides & Woo), so a corner can't slip through
+    private boolean lineOfSight(double x0, double y0, double x1, double y1) {
+        double cs = grid.getCellSize();
+        double px = x0 / cs, py = y0 / cs, qx = x1 / cs, qy = y1 / cs;
+        int cx = (int) Math.floor(px), cy = (int) Math.floor(py);
+        int ex = (int) Math.floor(qx), ey = (int) Math.floor(qy);
+        double dx = qx - px, dy = qy - py;
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? Math.abs(1.0 / dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx != 0 ? (dx > 0 ? cx + 1 - px : px - cx) * tDeltaX : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? (dy > 0 ? cy + 1 - py : py - cy) * tDeltaY : Double.POSITIVE_INFINITY;
+        int n = Math.abs(ex - cx) + Math.abs(ey - cy);
+        for (int i = 0; i < n; i++) {
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+            if (!free(cx, cy)) return false;
+        }
+        return true;
+    }
+
+    // the cell itself if free, otherwise the closest free cell on growing square rings
+    private int freeCellNear(int cx, int cy) {
+        if (!grid.isBlocked(cx, cy)) return cy * width + cx;
+        for (int r = 1; r <= ESCAPE_RADIUS; r++) {
+            bestFree = -1;
+            bestFreeD = Integer.MAX_VALUE;
+            // just the ring's edge, row by row: whole first and last rows, the two ends of the rest
+            for (int dy = -r; dy <= r; dy++) {
+                int stepX = dy == -r || dy == r ? 1 : 2 * r;
+                for (int dx = -r; dx <= r; dx += stepX) ringCandidate(cx, cy, dx, dy);
+            }
+            if (bestFree >= 0) return bestFree;
+        }
+        return -1;
+    }
+
+    private void ringCandidate(int cx, int cy, int dx, int dy) {
+        int x = cx + dx, y = cy + dy;
+        if (grid.isBlocked(x, y)) return;
+        int d = dx * dx + dy * dy;
+        if (d < bestFreeD) {
+            bestFreeD = d;
+            bestFree = y * width + x;
+        }
+    }
+
+    private void open(int cell, int gCost, int fCost, int from) {
+        seen[cell] = generation;
+        g[cell] = gCost;
+        f[cell] = fCost;
+        parent[cell] = from;
+        heap[heapSize] = cell;
+        heapPos[cell] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private boolean less(int a, int b) {
+        return f[a] < f[b] || (f[a] == f[b] && g[a] > g[b]);
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(cell, heap[p])) break;
+            heap[i] = heap[p];
+            heapPos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = cell;
+        heapPos[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= heapSize) break;
+            if (c + 1 < heapSize && less(heap[c + 1], heap[c])) c++;
+            if (!less(heap[c], cell)) break;
+            heap[i] = heap[c];
+            heapPos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = cell;
+        heapPos[cell] = i;
+    }
+}
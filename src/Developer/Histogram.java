@@ -0,0 +1,64 @@
+package Developer;
+
+// Fixed-bucket histogram of nanosecond durations, log-linear like HdrHistogram: exact below 32 ns,
+// then 16 buckets per power of two (within ~6%). record() is a shift and an increment into a
+// pre-allocated long[], no allocation, so it can sit in a 1 kHz loop.
+// One thread records; another may read percentiles while it does and just sees a slightly stale count.
+public class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;                 // buckets per power of two
+    private static final int BUCKETS = 2 * SUB + SUB * (63 - SUB_BITS - 1);
+
+    private final long[] counts = new long[BUCKETS];
+    private long total = 0;
+    private long max = 0;
+    private long sum = 0;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    static int bucket(long v) {
+        if (v < 2 * SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS; // >= 1
+        return SUB + shift * SUB + (int) (v >>> shift) - SUB;
+    }
+
+    // smallest value that lands in bucket i
+    static long lowerBound(int i) {
+        if (i < 2 * SUB) return i;
+        int shift = (i - SUB) / SUB;
+        return (long) ((i - SUB) % SUB + SUB) << shift;
+    }
+
+    // value at or below which fraction p of the samples fall (bucket upper edge), 0 when empty
+    public long percentile(double p) {
+        long n = total;
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upper = i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() { return total; }
+    public long getMax() { return max; }
+    public double getMean() { return total == 0 ? 0 : sum / (double) total; }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+        sum = 0;
+    }
+}
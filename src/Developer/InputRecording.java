@@ -0,0 +1,116 @@
+package Developer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Everything needed to reproduce a run: the noise seed, the physics period, how many physics ticks
+// each controller call covered, the start pose, the odometry rate if pathing steered from a
+// PoseEstimator, and per physics tick the key state that went in and the motor commands that came out.
+// Replaying feeds the keys back and checks the motors match bit for bit.
+public class InputRecording {
+    private static final int MAGIC = 0x4F5A5250; // "OZRP"
+    private static final int VERSION = 3; // 3 added controlEvery, 2 odometryHz; older files load with the defaults
+
+    public final long seed;
+    public final double dt;
+    public final double inconsistency;
+    public final Pose startPose;
+    public final double odometryHz; // 0 = pathing read the true pose
+    public final int controlEvery;  // physics ticks per controller call, 1 = every tick
+
+    private byte[] keys = new byte[1024];
+    private double[] motors = new double[4 * 1024]; // fl, fr, bl, br per tick
+    private int ticks = 0;
+
+    public InputRecording(long seed, double dt, double inconsistency, Pose startPose, int controlEvery) {
+        this(seed, dt, inconsistency, startPose, controlEvery, 0.0);
+    }
+
+    public InputRecording(long seed, double dt, double inconsistency, Pose startPose, int controlEvery,
+                          double odometryHz) {
+        this.seed = seed;
+        this.dt = dt;
+        this.inconsistency = inconsistency;
+        this.startPose = startPose;
+        this.controlEvery = controlEvery;
+        this.odometryHz = odometryHz;
+    }
+
+    public void add(int keyMask, Robot robot) {
+        if (ticks == keys.length) {
+            keys = Arrays.copyOf(keys, ticks * 2);
+            motors = Arrays.copyOf(motors, ticks * 8);
+        }
+        keys[ticks] = (byte) keyMask;
+        int m = ticks * 4;
+        motors[m] = robot.getMFL();
+        motors[m + 1] = robot.getMFR();
+        motors[m + 2] = robot.getMBL();
+        motors[m + 3] = robot.getMBR();
+        ticks++;
+    }
+
+    public int getTicks() { return ticks; }
+
+    public int getKeyMask(int tick) { return keys[tick] & 0xFF; }
+
+    // exact compare, any difference at all means the replay has drifted from the recording
+    public boolean motorsMatch(int tick, Robot robot) {
+        int m = tick * 4;
+        return Double.doubleToLongBits(motors[m]) == Double.doubleToLongBits(robot.getMFL())
+                && Double.doubleToLongBits(motors[m + 1]) == Double.doubleToLongBits(robot.getMFR())
+                && Double.doubleToLongBits(motors[m + 2]) == Double.doubleToLongBits(robot.getMBL())
+                && Double.doubleToLongBits(motors[m + 3]) == Double.doubleToLongBits(robot.getMBR());
+    }
+
+    public void save(Path path) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeDouble(dt);
+            out.writeDouble(inconsistency);
+            out.writeDouble(startPose.x);
+            out.writeDouble(startPose.y);
+            out.writeDouble(startPose.heading);
+            out.writeDouble(odometryHz);
+            out.writeInt(controlEvery);
+            out.writeInt(ticks);
+            out.write(keys, 0, ticks);
+            for (int i = 0; i < ticks * 4; i++) out.writeDouble(motors[i]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not save recording to " + path, e);
+        }
+    }
+
+    public static InputRecording load(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a recording");
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) throw new IOException("unsupported recording version " + version);
+            long seed = in.readLong();
+            double dt = in.readDouble();
+            double inconsistency = in.readDouble();
+            Pose start = new Pose(in.readDouble(), in.readDouble(), in.readDouble());
+            double odometryHz = version >= 2 ? in.readDouble() : 0.0;
+            int controlEvery = version >= 3 ? in.readInt() : 1;
+            InputRecording rec = new InputRecording(seed, dt, inconsistency, start, controlEvery, odometryHz);
+            int ticks = in.readInt();
+            rec.keys = new byte[Math.max(ticks, 1)];
+            rec.motors = new double[Math.max(ticks, 1) * 4];
+            in.readFully(rec.keys, 0, ticks);
+            for (int i = 0; i < ticks * 4; i++) rec.motors[i] = in.readDouble();
+            rec.ticks = ticks;
+            return rec;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not load recording " + path, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package Developer;
+
+// Where the simulator's own time goes: one Histogram per stage, fed by SimulationLoop, Renderer,
+// FieldPanel and the routine's loop(), published to Telemetry as p50 / p99 / max in microseconds.
+// If tracking error shows up together with a long tick period or a slow loop, it's the simulator
+// and not the controller.
+public class LoopTiming {
+    public static final int PERIOD = 0;   // start of one physics step to the start of the next
+    public static final int LOOP = 1;     // the whole loop function
+    public static final int PATHING = 2;  // OzPathing.update
+    public static final int PHYSICS = 3;  // Robot.update
+    public static final int PAINT = 4;    // FieldPanel.paintComponent
+    public static final int EDT_LAG = 5;  // how late the render timer's event ran on the EDT
+    static final String[] NAMES = { "Tick period", "Loop", "OzPathing.update", "Robot.update", "Paint", "EDT lag" };
+
+    private static final long PUBLISH_NANOS = 250_000_000L;
+
+    private final Histogram[] stages = new Histogram[NAMES.length];
+    private Telemetry.DoubleChannel[] p50, p99, max;
+    private long lastPublish = 0;
+
+    public LoopTiming() {
+        for (int i = 0; i < stages.length; i++) stages[i] = new Histogram();
+    }
+
+    // long t0 = timing.start(); ...; timing.stop(LoopTiming.PATHING, t0);
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(int stage, long startNanos) {
+        stages[stage].record(System.nanoTime() - startNanos);
+    }
+
+    public void record(int stage, long nanos) {
+        stages[stage].record(nanos);
+    }
+
+    public Histogram get(int stage) {
+        return stages[stage];
+    }
+
+    public void attach(Telemetry telemetry) {
+        p50 = new Telemetry.DoubleChannel[NAMES.length];
+        p99 = new Telemetry.DoubleChannel[NAMES.length];
+        max = new Telemetry.DoubleChannel[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            p50[i] = telemetry.doubleChannel(NAMES[i] + " p50 us");
+            p99[i] = telemetry.doubleChannel(NAMES[i] + " p99 us");
+            max[i] = telemetry.doubleChannel(NAMES[i] + " max us");
+        }
+    }
+
+    // called from the render timer; only walks the buckets every PUBLISH_NANOS
+    public void publishIfDue() {
+        long now = System.nanoTime();
+        if (now - lastPublish < PUBLISH_NANOS) return;
+        lastPublish = now;
+        publish();
+    }
+
+    // stages nobody has recorded into stay hidden
+    public void publish() {
+        if (p50 == null) return;
+        for (int i = 0; i < NAMES.length; i++) {
+            Histogram h = stages[i];
+            if (h.getCount() == 0) continue;
+            p50[i].set(h.percentile(0.50) / 1e3);
+            p99[i].set(h.percentile(0.99) / 1e3);
+            max[i].set(h.getMax() / 1e3);
+        }
+    }
+
+    public void reset() {
+        for (Histogram h : stages) h.reset();
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            Histogram h = stages[i];
+            if (h.getCount() == 0) continue;
+            sb.append(String.format("%-18s n=%-8d p50 %8.1f us  p99 %8.1f us  max %8.1f us%n", NAMES[i], h.getCount(),
+                    h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.getMax() / 1e3));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package Developer;
+
+// Up to four robots on one field, each with its own controller, stepped together on one clock.
+// Every step: all controllers set their motors (every step, or every controlEvery steps when the
+// physics runs faster than the controllers), every robot integrates, then overlaps are pushed apart. Robots are bucketed by center into a uniform spatial hash (cell >= the robot's
+// bounding circle, so only the 3x3 neighbourhood can touch) and candidate pairs get an exact
+// oriented-box (SAT) test. Walls clamp the rotated footprint back inside the 144 unit field.
+// The hash is flat int arrays rebuilt in place, step() allocates nothing.
+public class MatchWorld {
+    public static final int MAX_ROBOTS = 4;
+    private static final double FIELD = 144.0;
+    private static final double HALF = FieldPanel.ROBOT_SIZE_UNITS / 2.0;
+    private static final double CELL = 24.0; // > 15 * sqrt(2), the robot's bounding circle
+    private static final int CELLS = (int) Math.ceil(FIELD / CELL);
+    private static final int RESOLVE_PASSES = 2;
+
+    // sets this robot's motors for the coming step
+    public interface Controller {
+        void control(double simTimeSec);
+    }
+
+    private final Robot[] robots = new Robot[MAX_ROBOTS];
+    private final Controller[] controllers = new Controller[MAX_ROBOTS];
+    private int count = 0;
+    private final SimClock clock;
+    private int controlEvery = 1;
+
+    // spatial hash: head of each cell's list, next robot in the same cell, -1 terminated
+    private final int[] cellHead = new int[CELLS * CELLS];
+    private final int[] nextInCell = new int[MAX_ROBOTS];
+    private final int[] cellOf = new int[MAX_ROBOTS];
+    // per-step scratch: center + rotation of each robot
+    private final double[] cx = new double[MAX_ROBOTS], cy = new double[MAX_ROBOTS];
+    private final double[] cos = new double[MAX_ROBOTS], sin = new double[MAX_ROBOTS];
+
+    private long robotContacts = 0, wallContacts = 0;
+
+    public MatchWorld(double dt) {
+        this.clock = new SimClock(dt);
+    }
+
+    // returns the robot's index
+    public int addRobot(Robot robot, Controller controller) {
+        if (count == MAX_ROBOTS) {
+            throw new IllegalStateException("a match has at most " + MAX_ROBOTS + " robots");
+        }
+        robots[count] = robot;
+        controllers[count] = controller;
+        return count++;
+    }
+
+    // controllers run every period seconds of sim time (rounded to whole steps), the default is every step
+    public void setControlPeriod(double period) {
+        controlEvery = (int) Math.max(1, Math.round(period / clock.getDt()));
+    }
+
+    public void step() {
+        double t = clock.getTimeSec();
+        double dt = clock.getDt();
+        if (clock.getTick() % controlEvery == 0) {
+            for (int i = 0; i < count; i++) {
+                if (controllers[i] != null) controllers[i].control(t);
+            }
+        }
+        for (int i = 0; i < count; i++) robots[i].update(dt);
+        resolveCollisions();
+        clock.advance();
+    }
+
+    public void resolveCollisions() {
+        for (int pass = 0; pass < RESOLVE_PASSES; pass++) {
+            boolean any = false;
+            rebuildHash();
+            for (int i = 0; i < count; i++) {
+                int ci = cellOf[i];
+                int gx = ci % CELLS, gy = ci / CELLS;
+                for (int ny = Math.max(0, gy - 1); ny <= Math.min(CELLS - 1, gy + 1); ny++) {
+                    for (int nx = Math.max(0, gx - 1); nx <= Math.min(CELLS - 1, gx + 1); nx++) {
+                        for (int j = cellHead[ny * CELLS + nx]; j >= 0; j = nextInCell[j]) {
+                            if (j > i && separate(i, j)) any = true; // each pair once
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if (clampToField(i)) any = true;
+            }
+            if (!any) break;
+        }
+    }
+
+    private void rebuildHash() {
+        java.util.Arrays.fill(cellHead, -1);
+        for (int i = 0; i < count; i++) {
+            Robot r = robots[i];
+            cx[i] = r.getX() + HALF;
+            cy[i] = r.getY() + HALF;
+            cos[i] = Math.cos(r.getHeading());
+            sin[i] = Math.sin(r.getHeading());
+            int gx = Math.max(0, Math.min(CELLS - 1, (int) (cx[i] / CELL)));
+            int gy = Math.max(0, Math.min(CELLS - 1, (int) (cy[i] / CELL)));
+            int c = gy * CELLS + gx;
+            cellOf[i] = c;
+            nextInCell[i] = cellHead[c];
+            cellHead[c] = i;
+        }
+    }
+
+    // SAT over the 4 face normals of two squares; pushes them apart along the smallest overlap
+    private boolean separate(int a, int b) {
+        double dx = cx[b] - cx[a], dy = cy[b] - cy[a];
+        if (dx * dx + dy * dy >= 2 * (2 * HALF) * (2 * HALF)) return false; // bounding circles apart
+
+        double best = Double.MAX_VALUE, nx = 0, ny = 0;
+        for (int k = 0; k < 4; k++) {
+            double ax, ay;
+            switch (k) {
+                case 0: ax = cos[a]; ay = sin[a]; break;
+                case 1: ax = -sin[a]; ay = cos[a]; break;
+                case 2: ax = cos[b]; ay = sin[b]; break;
+                default: ax = -sin[b]; ay = cos[b]; break;
+            }
+            double ra = HALF * (Math.abs(ax * cos[a] + ay * sin[a]) + Math.abs(-ax * sin[a] + ay * cos[a]));
+            double rb = HALF * (Math.abs(ax * cos[b] + ay * sin[b]) + Math.abs(-ax * sin[b] + ay * cos[b]));
+            double dist = dx * ax + dy * ay;
+            double overlap = ra + rb - Math.abs(dist);
+            if (overlap <= 0) return false; // found a separating axis
+            if (overlap < best) {
+                best = overlap;
+                // normal pointing from a to b
+                nx = dist < 0 ? -ax : ax;
+                ny = dist < 0 ? -ay : ay;
+            }
+        }
+
+        double push = best / 2;
+        robots[a].applyContact(-nx * push, -ny * push, -nx, -ny, cos[a], sin[a]);
+        robots[b].applyContact(nx * push, ny * push, nx, ny, cos[b], sin[b]);
+        cx[a] -= nx * push; cy[a] -= ny * push;
+        cx[b] += nx * push; cy[b] += ny * push;
+        robotContacts++;
+        return true;
+    }
+
+    // uses the heading / center cached by rebuildHash and kept current by separate()
+    private boolean clampToField(int i) {
+        Robot r = robots[i];
+        double ext = HALF * (Math.abs(cos[i]) + Math.abs(sin[i])); // half width of the rotated square's bounding box
+        double x = cx[i], y = cy[i];
+        boolean hit = false;
+        if (x - ext < 0) { r.applyContact(ext - x, 0, 1, 0, cos[i], sin[i]); hit = true; }
+        if (x + ext > FIELD) { r.applyContact(FIELD - ext - x, 0, -1, 0, cos[i], sin[i]); hit = true; }
+        if (y - ext < 0) { r.applyContact(0, ext - y, 0, 1, cos[i], sin[i]); hit = true; }
+        if (y + ext > FIELD) { r.applyContact(0, FIELD - ext - y, 0, -1, cos[i], sin[i]); hit = true; }
+        if (hit) {
+            wallContacts++;
+            cx[i] = r.getX() + HALF;
+            cy[i] = r.getY() + HALF;
+        }
+        return hit;
+    }
+
+    public int getRobotCount() { return count; }
+    public Robot getRobot(int i) { return robots[i]; }
+    public SimClock getClock() { return clock; }
+    public long getRobotContacts() { return robotContacts; }
+    public long getWallContacts() { return wallContacts; }
+}
@@ -0,0 +1,125 @@
+package Developer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+// Small JMH-style harness (the project has no build file to pull JMH in through).
+// Warms up, then times fixed-length iterations and reports ns/op and bytes allocated per op,
+// read from the per-thread allocation counter HotSpot keeps (same source as JMH's gc profiler).
+public class MicroBench {
+    public interface Op {
+        double run(); // return something derived from the work so the JIT can't drop it
+    }
+
+    public static class Result {
+        public final String name;
+        public final String param;
+        public final double nsPerOp;
+        public final double nsPerOpError; // half-width of the spread across iterations
+        public final double bytesPerOp;   // NaN if the JVM can't count allocations
+
+        Result(String name, String param, double nsPerOp, double nsPerOpError, double bytesPerOp) {
+            this.name = name;
+            this.param = param;
+            this.nsPerOp = nsPerOp;
+            this.nsPerOpError = nsPerOpError;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+    private final List<Result> results = new ArrayList<>();
+    private String filter = "";
+    private double sink; // blackhole
+    private static volatile double publishedSink;
+
+    public MicroBench() {
+        this(5, 10, 100_000_000L);
+    }
+
+    public MicroBench(int warmupIterations, int measureIterations, long iterationNanos) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationNanos;
+    }
+
+    // only benchmarks whose name contains filter run, "" runs everything
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    public boolean matches(String name) {
+        return name.contains(filter);
+    }
+
+    // null if the filter skips it
+    public Result run(String name, String param, Op op) {
+        if (!matches(name)) return null;
+        // size a batch so one iteration lasts ~iterationNanos
+        long batch = 1;
+        while (true) {
+            long t0 = System.nanoTime();
+            for (long i = 0; i < batch; i++) sink += op.run();
+            long took = System.nanoTime() - t0;
+            if (took > iterationNanos / 10 || batch > (1L << 40)) {
+                batch = Math.max(1, batch * iterationNanos / Math.max(1, took));
+                break;
+            }
+            batch *= 2;
+        }
+
+        for (int w = 0; w < warmupIterations; w++) {
+            for (long i = 0; i < batch; i++) sink += op.run();
+        }
+
+        double[] nsPerOp = new double[measureIterations];
+        long allocBefore = allocatedBytes();
+        long totalOps = 0;
+        for (int m = 0; m < measureIterations; m++) {
+            long t0 = System.nanoTime();
+            for (long i = 0; i < batch; i++) sink += op.run();
+            nsPerOp[m] = (System.nanoTime() - t0) / (double) batch;
+            totalOps += batch;
+        }
+        long allocAfter = allocatedBytes();
+        publishedSink = sink;
+
+        double mean = 0;
+        for (double v : nsPerOp) mean += v;
+        mean /= measureIterations;
+        double min = Double.MAX_VALUE, max = 0;
+        for (double v : nsPerOp) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double bytes = allocBefore < 0 ? Double.NaN : (allocAfter - allocBefore) / (double) totalOps;
+
+        Result r = new Result(name, param, mean, (max - min) / 2.0, bytes);
+        results.add(r);
+        System.out.printf("%-40s %12s %14.1f +- %-10.1f %12.1f%n", name, param, r.nsPerOp, r.nsPerOpError, r.bytesPerOp);
+        return r;
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-40s %12s %14s    %-10s %12s%n", "Benchmark", "(param)", "ns/op", "error", "B/op");
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hs = (com.sun.management.ThreadMXBean) bean;
+            if (hs.isThreadAllocatedMemorySupported() && hs.isThreadAllocatedMemoryEnabled()) {
+                return hs.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+}
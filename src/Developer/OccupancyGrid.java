@@ -0,0 +1,169 @@
+package Developer;
+
+// Bitset occupancy grid over the field. Cell (cx, cy) covers [cx, cx+1) x [cy, cy+1) in cells,
+// one bit per cell packed into longs so a whole 1 inch 144x144 field is ~2.6 KB.
+// Coordinates are field units with (0,0) bottom-left, same as Pose.
+public class OccupancyGrid {
+    public static final double FIELD_UNITS = 144.0;
+
+    private final int width, height;
+    private final double cellSize;
+    private final long[] bits;
+    private int modCount = 0; // bumped on every change, so GridPlanner knows when its copy is stale
+
+    public OccupancyGrid(double cellSize) {
+        this((int) Math.ceil(FIELD_UNITS / cellSize), (int) Math.ceil(FIELD_UNITS / cellSize), cellSize);
+    }
+
+    public OccupancyGrid(int width, int height, double cellSize) {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.bits = new long[(width * height + 63) >>> 6];
+    }
+
+    // DECODE field: the two goals are the only things standing on the floor.
+    // Modelled as right triangles filling the top corners.
+    public static OccupancyGrid decodeField(double cellSize) {
+        OccupancyGrid grid = new OccupancyGrid(cellSize);
+        double goal = 24.0;
+        grid.addTriangle(0, FIELD_UNITS, 0, FIELD_UNITS - goal, goal, FIELD_UNITS);
+        grid.addTriangle(FIELD_UNITS, FIELD_UNITS, FIELD_UNITS, FIELD_UNITS - goal, FIELD_UNITS - goal, FIELD_UNITS);
+        return grid;
+    }
+
+    int getModCount() { return modCount; }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public double getCellSize() { return cellSize; }
+
+    public int toCellX(double x) { return clamp((int) Math.floor(x / cellSize), width); }
+    public int toCellY(double y) { return clamp((int) Math.floor(y / cellSize), height); }
+    public double cellCenterX(int cx) { return (cx + 0.5) * cellSize; }
+    public double cellCenterY(int cy) { return (cy + 0.5) * cellSize; }
+
+    private static int clamp(int c, int n) {
+        return c < 0 ? 0 : (c >= n ? n - 1 : c);
+    }
+
+    public boolean isBlocked(int cx, int cy) {
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return true; // outside the field walls
+        int i = cy * width + cx;
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // same as isBlocked for a cell index, no bounds check
+    boolean isBlocked(int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void set(int cx, int cy, boolean blocked) {
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return;
+        int i = cy * width + cx;
+        if (blocked) bits[i >>> 6] |= 1L << i;
+        else bits[i >>> 6] &= ~(1L << i);
+        modCount++;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(bits, 0L);
+        modCount++;
+    }
+
+    public void addRect(double x0, double y0, double x1, double y1) {
+        int cx0 = toCellX(Math.min(x0, x1)), cx1 = toCellX(Math.max(x0, x1));
+        int cy0 = toCellY(Math.min(y0, y1)), cy1 = toCellY(Math.max(y0, y1));
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) set(cx, cy, true);
+        }
+    }
+
+    public void addCircle(double x, double y, double r) {
+        int cx0 = toCellX(x - r), cx1 = toCellX(x + r);
+        int cy0 = toCellY(y - r), cy1 = toCellY(y + r);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                if (Math.hypot(cellCenterX(cx) - x, cellCenterY(cy) - y) <= r) set(cx, cy, true);
+            }
+        }
+    }
+
+    // marks every cell whose center is inside the triangle
+    public void addTriangle(double ax, double ay, double bx, double by, double cx, double cy) {
+        int x0 = toCellX(Math.min(ax, Math.min(bx, cx))), x1 = toCellX(Math.max(ax, Math.max(bx, cx)));
+        int y0 = toCellY(Math.min(ay, Math.min(by, cy))), y1 = toCellY(Math.max(ay, Math.max(by, cy)));
+        for (int j = y0; j <= y1; j++) {
+            for (int i = x0; i <= x1; i++) {
+                double px = cellCenterX(i), py = cellCenterY(j);
+                double d1 = (px - bx) * (ay - by) - (ax - bx) * (py - by);
+                double d2 = (px - cx) * (by - cy) - (bx - cx) * (py - cy);
+                double d3 = (px - ax) * (cy - ay) - (cx - ax) * (py - ay);
+                boolean neg = d1 < 0 || d2 < 0 || d3 < 0;
+                boolean pos = d1 > 0 || d2 > 0 || d3 > 0;
+                if (!(neg && pos)) set(i, j, true);
+            }
+        }
+    }
+
+    // Grid for planning the robot *center*: every obstacle grown by a disk of radius, plus a band of
+    // radius along the field walls. Cell against cell, not centre against centre: a cell is blocked if
+    // any point of it is within radius of a blocked cell or a wall, so the centre can be anywhere in a
+    // free cell. A disk only keeps a *circle* of that radius clear, for the robot use inflateForRobot.
+    public OccupancyGrid inflate(double radius) {
+        return inflate(radius, false);
+    }
+
+    // grown by a square of halfWidth instead, exact for a footprint that stays axis aligned
+    public OccupancyGrid inflateSquare(double halfWidth) {
+        return inflate(halfWidth, true);
+    }
+
+    // the robot turns while it drives, so grow by the circumradius of its size x size footprint,
+    // plus margin for how far the follower strays from the planned line
+    public OccupancyGrid inflateForRobot(double size, double margin) {
+        return inflate(size / 2.0 * Math.sqrt(2.0) + margin);
+    }
+
+    private OccupancyGrid inflate(double radius, boolean square) {
+        OccupancyGrid out = new OccupancyGrid(width, height, cellSize);
+        int r = (int) Math.ceil(radius / cellSize) + 1;
+
+        // kernel offsets once, then stamp them around every blocked cell.
+        // gx / gy = smallest gap between the two cells on each axis
+        int n = 0;
+        int[] offX = new int[(2 * r + 1) * (2 * r + 1)];
+        int[] offY = new int[offX.length];
+        for (int dy = -r; dy <= r; dy++) {
+            for (int dx = -r; dx <= r; dx++) {
+                double gx = Math.max(Math.abs(dx) - 1, 0) * cellSize;
+                double gy = Math.max(Math.abs(dy) - 1, 0) * cellSize;
+                boolean hit = square ? gx < radius && gy < radius : gx * gx + gy * gy < radius * radius;
+                if (hit) {
+                    offX[n] = dx;
+                    offY[n] = dy;
+                    n++;
+                }
+            }
+        }
+
+        for (int cy = 0; cy < height; cy++) {
+            for (int cx = 0; cx < width; cx++) {
+                if (!isBlocked(cy * width + cx)) continue;
+                for (int k = 0; k < n; k++) out.set(cx + offX[k], cy + offY[k], true);
+            }
+        }
+
+        // walls: any point of the cell closer than radius to an edge (same for disk and square)
+        double w = width * cellSize, h = height * cellSize;
+        for (int cy = 0; cy < height; cy++) {
+            for (int cx = 0; cx < width; cx++) {
+                if (cx * cellSize < radius || cy * cellSize < radius
+                        || (cx + 1) * cellSize > w - radius || (cy + 1) * cellSize > h - radius) {
+                    out.set(cx, cy, true);
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,142 @@
+package Developer;
+
+import java.util.Arrays;
+
+// A growable list of poses stored as one flat double[] (x, y, heading interleaved), for trajectories,
+// trails and recorded traces where a Pose object per entry would be millions of tiny objects.
+// Appending grows by doubling; reading and the bulk transforms are plain array loops, no allocation.
+public class PoseBuffer {
+    public static final int STRIDE = 3;
+    private static final double FIELD = 144.0;
+
+    private double[] data;
+    private int size = 0;
+
+    public PoseBuffer() {
+        this(16);
+    }
+
+    public PoseBuffer(int capacity) {
+        data = new double[Math.max(1, capacity) * STRIDE];
+    }
+
+    public static PoseBuffer of(Pose... poses) {
+        PoseBuffer buf = new PoseBuffer(poses.length);
+        for (Pose p : poses) buf.append(p);
+        return buf;
+    }
+
+    public void append(double x, double y, double heading) {
+        if ((size + 1) * STRIDE > data.length) ensureCapacity(size + 1);
+        int b = size * STRIDE;
+        data[b] = x;
+        data[b + 1] = y;
+        data[b + 2] = heading;
+        size++;
+    }
+
+    public void append(Pose p) {
+        append(p.x, p.y, p.heading);
+    }
+
+    public void append(Robot robot) {
+        append(robot.getX(), robot.getY(), robot.getHeading());
+    }
+
+    public void appendAll(PoseBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.data, 0, data, size * STRIDE, other.size * STRIDE);
+        size += other.size;
+    }
+
+    public void ensureCapacity(int poses) {
+        if (poses * STRIDE <= data.length) return;
+        int cap = Math.max(poses, data.length / STRIDE * 2);
+        data = Arrays.copyOf(data, cap * STRIDE);
+    }
+
+    public int size() { return size; }
+    public double x(int i) { return data[i * STRIDE]; }
+    public double y(int i) { return data[i * STRIDE + 1]; }
+    public double heading(int i) { return data[i * STRIDE + 2]; }
+
+    // allocates, for handing one entry to code that takes a Pose
+    public Pose get(int i) {
+        int b = i * STRIDE;
+        return new Pose(data[b], data[b + 1], data[b + 2]);
+    }
+
+    public void set(int i, double x, double y, double heading) {
+        int b = i * STRIDE;
+        data[b] = x;
+        data[b + 1] = y;
+        data[b + 2] = heading;
+    }
+
+    // keeps the storage
+    public void clear() {
+        size = 0;
+    }
+
+    // copy of [from, to)
+    public PoseBuffer slice(int from, int to) {
+        checkRange(from, to);
+        PoseBuffer out = new PoseBuffer(to - from);
+        System.arraycopy(data, from * STRIDE, out.data, 0, (to - from) * STRIDE);
+        out.size = to - from;
+        return out;
+    }
+
+    public Pose[] toArray() {
+        Pose[] out = new Pose[size];
+        for (int i = 0; i < size; i++) out[i] = get(i);
+        return out;
+    }
+
+    // ---- bulk transforms, in place ----
+
+    // alliance mirror across the field's centre line: x -> 144 - x, heading -> pi - heading in [0, 2pi)
+    public void mirror() {
+        mirror(0, size);
+    }
+
+    public void mirror(int from, int to) {
+        checkRange(from, to);
+        for (int b = from * STRIDE, end = to * STRIDE; b < end; b += STRIDE) {
+            data[b] = FIELD - data[b];
+            data[b + 2] = mirrorHeading(data[b + 2]);
+        }
+    }
+
+    static double mirrorHeading(double heading) {
+        double h = Math.PI - heading;
+        return h - 2 * Math.PI * Math.floor(h / (2 * Math.PI));
+    }
+
+    // rotate by rotation about the origin, then shift by (dx, dy)
+    public void transform(double dx, double dy, double rotation) {
+        transform(0, size, dx, dy, rotation);
+    }
+
+    public void transform(int from, int to, double dx, double dy, double rotation) {
+        checkRange(from, to);
+        double c = Math.cos(rotation), s = Math.sin(rotation);
+        for (int b = from * STRIDE, end = to * STRIDE; b < end; b += STRIDE) {
+            double x = data[b], y = data[b + 1];
+            data[b] = c * x - s * y + dx;
+            data[b + 1] = s * x + c * y + dy;
+            data[b + 2] += rotation;
+        }
+    }
+
+    // the pose `frame` is relative to, e.g. a routine written from one start pose moved to another
+    public void transformBy(Pose frame) {
+        transform(frame.x, frame.y, frame.heading);
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") of " + size + " poses");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package Developer;
+
+// What the robot thinks its pose is: an EKF over (x, y, heading) fed by SimulatedOdometry.
+//   predict  wheel tick deltas -> robot-frame move (Robot's forward mecanum mixing), applied at the
+//            midpoint heading, covariance grown by how far the wheels went
+//   correct  IMU heading as a scalar measurement, so no matrix inverse
+// The 3x3 covariance is symmetric and kept as six doubles, every step is straight-line arithmetic,
+// nothing allocates. Runs at rateHz, at most once per update() (the sensors only change per physics tick).
+public class PoseEstimator implements PoseSource {
+    private final SimulatedOdometry sensors;
+    private final double period;
+    private double sinceStep = 0.0;
+
+    // tuning, roughly matched to SimulatedOdometry's defaults
+    private double travelSigma = 0.03;                 // per unit of wheel travel
+    private double turnSigma = 0.03;                   // per radian turned
+    private double imuSigma = Math.toRadians(0.3);
+    // tick quantisation makes one step's velocity jumpy at high rates, so it is low-passed
+    private static final double VELOCITY_TAU = 0.03;
+
+    private double x, y, heading, vx, vy;
+    private double p00, p01, p02, p11, p12, p22; // covariance, upper triangle
+    private final long[] lastTicks = new long[4];
+
+    public PoseEstimator(SimulatedOdometry sensors, double rateHz) {
+        this.sensors = sensors;
+        this.period = 1.0 / rateHz;
+        Robot robot = sensors.getRobot();
+        reset(new Pose(robot.getX(), robot.getY(), robot.getHeading()));
+    }
+
+    // known start: sensors re-zeroed, robot assumed to be there
+    public void reset(Pose pose) {
+        sensors.reset();
+        x = pose.x;
+        y = pose.y;
+        heading = pose.heading;
+        vx = vy = 0.0;
+        p00 = p11 = 0.25;
+        p22 = Math.toRadians(1) * Math.toRadians(1);
+        p01 = p02 = p12 = 0.0;
+        for (int i = 0; i < 4; i++) lastTicks[i] = sensors.getTicks(i);
+        sinceStep = 0.0;
+    }
+
+    // once per physics tick, after robot.update
+    public void update(double dt) {
+        sensors.sample(dt);
+        sinceStep += dt;
+        if (sinceStep + 1e-9 < period) return;
+        step(sinceStep);
+        sinceStep = 0.0;
+    }
+
+    private void step(double elapsed) {
+        double fl = delta(SimulatedOdometry.FL), fr = delta(SimulatedOdometry.FR);
+        double bl = delta(SimulatedOdometry.BL), br = delta(SimulatedOdometry.BR);
+        double bx = (fl + fr + bl + br) / 4.0;
+        double by = (-fl + fr - bl + br) / 4.0;
+        double dTheta = (-fl + fr + bl - br) / 4.0 * SimulatedOdometry.GAIN / SimulatedOdometry.LINEAR;
+
+        // predict
+        double mid = heading + dTheta / 2;
+        double cos = Math.cos(mid), sin = Math.sin(mid);
+        x += bx * cos - by * sin;
+        y += bx * sin + by * cos;
+        heading = SimulatedOdometry.wrap(heading + dTheta);
+        double alpha = elapsed / (VELOCITY_TAU + elapsed);
+        vx += alpha * (bx / elapsed - vx);
+        vy += alpha * (by / elapsed - vy);
+
+        // P = F P F^T + Q, F = [[1, 0, a], [0, 1, b], [0, 0, 1]]
+        double a = -(bx * sin + by * cos);
+        double b = bx * cos - by * sin;
+        double n00 = p00 + 2 * a * p02 + a * a * p22;
+        double n01 = p01 + a * p12 + b * p02 + a * b * p22;
+        double n02 = p02 + a * p22;
+        double n11 = p11 + 2 * b * p12 + b * b * p22;
+        double n12 = p12 + b * p22;
+        double qxy = travelSigma * (Math.abs(bx) + Math.abs(by));
+        double qth = turnSigma * Math.abs(dTheta);
+        p00 = n00 + qxy * qxy + 1e-9;
+        p01 = n01;
+        p02 = n02;
+        p11 = n11 + qxy * qxy + 1e-9;
+        p12 = n12;
+        p22 = p22 + qth * qth + 1e-9;
+
+        // correct with the IMU: H = [0, 0, 1], K = P H^T / (p22 + R)
+        double innovation = SimulatedOdometry.wrap(sensors.getImuHeading() - heading);
+        double s = p22 + imuSigma * imuSigma;
+        double k0 = p02 / s, k1 = p12 / s, k2 = p22 / s;
+        x += k0 * innovation;
+        y += k1 * innovation;
+        heading = SimulatedOdometry.wrap(heading + k2 * innovation);
+        // P = (I - K H) P
+        double r0 = p02, r1 = p12, r2 = p22;
+        p00 -= k0 * r0;
+        p01 -= k0 * r1;
+        p02 -= k0 * r2;
+        p11 -= k1 * r1;
+        p12 -= k1 * r2;
+        p22 -= k2 * r2;
+    }
+
+    private double delta(int wheel) {
+        long t = sensors.getTicks(wheel);
+        long d = t - lastTicks[wheel];
+        lastTicks[wheel] = t;
+        return d / SimulatedOdometry.TICKS_PER_UNIT;
+    }
+
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getHeading() { return heading; }
+    public double getVX() { return vx; }
+    public double getVY() { return vy; }
+
+    // 1-sigma position uncertainty, units
+    public double getPositionSigma() {
+        return Math.sqrt(Math.max(0.0, p00 + p11));
+    }
+
+    // how far the estimate is from where the robot really is
+    public double positionError() {
+        Robot robot = sensors.getRobot();
+        return Math.hypot(x - robot.getX(), y - robot.getY());
+    }
+
+    public double headingError() {
+        return SimulatedOdometry.wrap(heading - sensors.getRobot().getHeading());
+    }
+
+    public SimulatedOdometry getSensors() { return sensors; }
+
+    public void setTravelSigma(double travelSigma) { this.travelSigma = travelSigma; }
+    public void setTurnSigma(double turnSigma) { this.turnSigma = turnSigma; }
+    public void setImuSigma(double imuSigma) { this.imuSigma = imuSigma; }
+}
@@ -0,0 +1,234 @@
+package Developer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Named field poses loaded from a text file (Developer/Poses.txt), see that file for the format.
+// Blue poses are mirrored to Red automatically unless the file has an explicit Red one.
+// Lookups by name are a hash get. nearest() is a 2-d tree over the poses: flat index array,
+// node = middle of its range, alternating x / y splits, so a query walks O(log n) nodes,
+// allocates nothing and is safe from any number of threads.
+public class PoseLibrary {
+    public static final double FIELD = 144.0;
+    private static final String RESOURCE = "/Developer/Poses.txt";
+    private static final int MAX_TAGS = 32;
+
+    public enum Alliance {
+        BLUE("Blue"), RED("Red");
+
+        final String prefix;
+
+        Alliance(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final String[] names;
+    private final Pose[] poses;
+    private final double[] xs, ys;
+    private final int[] tagMasks;
+    private final Map<String, Integer> byName = new HashMap<>();
+    private final List<String> tagNames = new ArrayList<>();
+    private final int[] tree; // pose indices in kd order
+
+    private static PoseLibrary shared;
+
+    private PoseLibrary(List<String> names, List<Pose> poses, List<Integer> tagMasks, List<String> tagNames) {
+        int n = names.size();
+        this.names = names.toArray(new String[0]);
+        this.poses = poses.toArray(new Pose[0]);
+        this.tagMasks = new int[n];
+        this.xs = new double[n];
+        this.ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            this.tagMasks[i] = tagMasks.get(i);
+            xs[i] = this.poses[i].x;
+            ys[i] = this.poses[i].y;
+            byName.put(this.names[i], i);
+        }
+        this.tagNames.addAll(tagNames);
+        tree = new int[n];
+        for (int i = 0; i < n; i++) tree[i] = i;
+        build(0, n, 0);
+    }
+
+    // Developer/Poses.txt from the classpath, parsed once
+    public static synchronized PoseLibrary shared() {
+        if (shared == null) {
+            InputStream in = PoseLibrary.class.getResourceAsStream(RESOURCE);
+            if (in == null) throw new IllegalStateException("could not find " + RESOURCE + " on classpath");
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                shared = parse(reader.lines().toArray(String[]::new));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return shared;
+    }
+
+    public static PoseLibrary load(Path file) {
+        try {
+            return parse(Files.readAllLines(file, StandardCharsets.UTF_8).toArray(new String[0]));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read poses from " + file, e);
+        }
+    }
+
+    // name x y headingDeg [tags...], '#' starts a comment
+    public static PoseLibrary parse(String[] lines) {
+        List<String> names = new ArrayList<>();
+        List<Pose> poses = new ArrayList<>();
+        List<Integer> masks = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+
+        for (int ln = 0; ln < lines.length; ln++) {
+            String line = lines[ln];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] f = line.split("\\s+");
+            if (f.length < 4) throw new IllegalArgumentException("line " + (ln + 1) + ": expected name x y heading");
+            Pose p;
+            try {
+                p = new Pose(Double.parseDouble(f[1]), Double.parseDouble(f[2]), Math.toRadians(Double.parseDouble(f[3])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("line " + (ln + 1) + ": " + e.getMessage());
+            }
+            int mask = 0;
+            for (int k = 4; k < f.length; k++) mask |= tagBit(tags, f[k]);
+            if (index.containsKey(f[0])) throw new IllegalArgumentException("line " + (ln + 1) + ": " + f[0] + " listed twice");
+            index.put(f[0], names.size());
+            names.add(f[0]);
+            poses.add(p);
+            masks.add(mask);
+        }
+
+        // Red from Blue where the file didn't measure one
+        int listed = names.size();
+        for (int i = 0; i < listed; i++) {
+            String name = names.get(i);
+            if (!name.startsWith(Alliance.BLUE.prefix)) continue;
+            String red = Alliance.RED.prefix + name.substring(Alliance.BLUE.prefix.length());
+            if (index.containsKey(red)) continue;
+            index.put(red, names.size());
+            names.add(red);
+            poses.add(mirror(poses.get(i)));
+            masks.add(masks.get(i));
+        }
+        return new PoseLibrary(names, poses, masks, tags);
+    }
+
+    private static int tagBit(List<String> tags, String tag) {
+        int i = tags.indexOf(tag);
+        if (i < 0) {
+            if (tags.size() == MAX_TAGS) throw new IllegalArgumentException("more than " + MAX_TAGS + " tags");
+            tags.add(tag);
+            i = tags.size() - 1;
+        }
+        return 1 << i;
+    }
+
+    // across the field's centre line, x -> 144 - x, heading -> pi - heading (kept in [0, 2pi))
+    public static Pose mirror(Pose p) {
+        return new Pose(FIELD - p.x, p.y, PoseBuffer.mirrorHeading(p.heading));
+    }
+
+    // ---- lookup ----
+
+    public Pose get(String name) {
+        Integer i = byName.get(name);
+        if (i == null) throw new IllegalArgumentException("no pose named " + name);
+        return poses[i];
+    }
+
+    // get(RED, "FarShoot") -> RedFarShoot
+    public Pose get(Alliance alliance, String name) {
+        return get(alliance.prefix + name);
+    }
+
+    public boolean contains(String name) {
+        return byName.containsKey(name);
+    }
+
+    public int size() { return poses.length; }
+    public Pose getPose(int i) { return poses[i]; }
+    public String getName(int i) { return names[i]; }
+
+    public List<String> getNames() {
+        return Arrays.asList(names.clone());
+    }
+
+    // bit for nearest(x, y, mask); 0 if no pose has the tag, which then matches nothing
+    public int tagMask(String tag) {
+        int i = tagNames.indexOf(tag);
+        return i < 0 ? 0 : 1 << i;
+    }
+
+    public boolean hasTag(int i, String tag) {
+        return (tagMasks[i] & tagMask(tag)) != 0;
+    }
+
+    // ---- nearest ----
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        double[] key = (depth & 1) == 0 ? xs : ys;
+        // small n, a sort per level is fine and keeps it simple
+        Integer[] range = new Integer[hi - lo];
+        for (int i = lo; i < hi; i++) range[i - lo] = tree[i];
+        Arrays.sort(range, (a, b) -> Double.compare(key[a], key[b]));
+        for (int i = lo; i < hi; i++) tree[i] = range[i - lo];
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    // index of the closest pose to (x, y), -1 if the library is empty
+    public int nearest(double x, double y) {
+        return nearest(x, y, -1);
+    }
+
+    // closest among poses carrying any tag in tagMask (tagMask("shoot") | tagMask("park")), -1 if none
+    public int nearest(double x, double y, int tagMask) {
+        return search(0, tree.length, 0, x, y, tagMask, -1);
+    }
+
+    // e.g. nearestPose(robot x, y, "shoot") for the closest scoring pose, null if none
+    public Pose nearestPose(double x, double y, String tag) {
+        int i = nearest(x, y, tagMask(tag));
+        return i < 0 ? null : poses[i];
+    }
+
+    private int search(int lo, int hi, int depth, double x, double y, int mask, int best) {
+        if (lo >= hi) return best;
+        int mid = (lo + hi) >>> 1;
+        int node = tree[mid];
+        if ((tagMasks[node] & mask) != 0 && (best < 0 || dist2(node, x, y) < dist2(best, x, y))) best = node;
+
+        double diff = (depth & 1) == 0 ? x - xs[node] : y - ys[node];
+        int nearLo = diff < 0 ? lo : mid + 1, nearHi = diff < 0 ? mid : hi;
+        int farLo = diff < 0 ? mid + 1 : lo, farHi = diff < 0 ? hi : mid;
+        best = search(nearLo, nearHi, depth + 1, x, y, mask, best);
+        // the other side can only win if the splitting line is closer than the best so far
+        if (best < 0 || diff * diff < dist2(best, x, y)) best = search(farLo, farHi, depth + 1, x, y, mask, best);
+        return best;
+    }
+
+    private double dist2(int i, double x, double y) {
+        double dx = xs[i] - x, dy = ys[i] - y;
+        return dx * dx + dy * dy;
+    }
+}
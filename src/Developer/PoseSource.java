@@ -0,0 +1,12 @@
+package Developer;
+
+// Where a controller gets the robot's pose from: Robot itself is ground truth, PoseEstimator is
+// what the robot would actually know from its encoders and IMU. Same conventions as Robot:
+// x / y of the robot's reference corner, heading in radians, vx / vy in the robot frame.
+public interface PoseSource {
+    double getX();
+    double getY();
+    double getHeading();
+    double getVX();
+    double getVY();
+}
@@ -10,10 +10,19 @@ public class Renderer {
     final FieldPanel fieldPanel; // package-visible for tests; keep private usage through API
     private JFrame frame;
     private Timer timer;
+    private SimulationLoop simulation;
+    private MatchWorld world;
+    private final LoopTiming timing = new LoopTiming();
 
     public Renderer(Robot robot) {
         this.robot = robot;
         this.fieldPanel = new FieldPanel(robot);
+        fieldPanel.setTiming(timing);
+    }
+
+    // the loops started here record into this; call attach(telemetry) on it to see the numbers
+    public LoopTiming getTiming() {
+        return timing;
     }
 
     public void initWindow() {
@@ -27,17 +36,64 @@ public class Renderer {
 
     // start the continuous loop; calls the provided loopFunction every tick
     public void startLoop(Runnable loopFunction, int delayMs) {
+        long delayNanos = delayMs * 1_000_000L;
+        long[] last = { 0 };
         timer = new Timer(delayMs, e -> {
+            long t0 = timing.start();
+            if (last[0] != 0) {
+                timing.record(LoopTiming.PERIOD, t0 - last[0]);
+                timing.record(LoopTiming.EDT_LAG, t0 - last[0] - delayNanos);
+            }
+            last[0] = t0;
             loopFunction.run();   // your update logic
+            timing.stop(LoopTiming.LOOP, t0);
             fieldPanel.repaint(); // then redraw
+            timing.publishIfDue();
+        });
+        timer.start();
+    }
+
+    // physics + loopFunction on their own thread at physicsHz, painting on the EDT at renderHz.
+    // loopFunction must advance the robot by 1 / physicsHz seconds per call
+    public void startSimulation(Runnable loopFunction, double physicsHz, double renderHz) {
+        simulation = new SimulationLoop(robot, loopFunction, physicsHz);
+        simulation.setTiming(timing);
+        simulation.setWorld(world);
+        fieldPanel.setSnapshotSource(simulation);
+        simulation.start();
+        int delayMs = (int) Math.max(1, Math.round(1000.0 / renderHz));
+        long delayNanos = delayMs * 1_000_000L;
+        long[] last = { 0 };
+        timer = new Timer(delayMs, e -> {
+            // a timer event that runs late sat in the EDT queue behind something else
+            long now = System.nanoTime();
+            if (last[0] != 0) timing.record(LoopTiming.EDT_LAG, now - last[0] - delayNanos);
+            last[0] = now;
+            fieldPanel.repaint();
+            timing.publishIfDue();
         });
         timer.start();
     }
 
+    // draw every robot of a match; the Renderer's own robot should be one of them.
+    // Call before startSimulation, whose loopFunction should step this world
+    public void showWorld(MatchWorld world) {
+        this.world = world;
+        fieldPanel.setWorld(world);
+    }
+
+    // distance sensor rays on this robot, null for none
+    public void showSensors(DistanceSensors sensors) {
+        fieldPanel.setSensors(sensors);
+    }
+
     public void stopLoop() {
         if (timer != null) {
             timer.stop();
         }
+        if (simulation != null) {
+            simulation.stop();
+        }
     }
 
     // convenience to run everything from Main
@@ -50,6 +106,10 @@ public class Renderer {
         fieldPanel.markPose(pose, color);
     }
 
+    public void markPoses(PoseBuffer poses, Color color) {
+        fieldPanel.markPoses(poses, color);
+    }
+
     // New helper to clear markers
     public void clearMarkers() {
         fieldPanel.clearMarkers();
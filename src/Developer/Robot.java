@@ -1,7 +1,7 @@
 package Developer;
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class Robot {
+public class Robot implements PoseSource {
     private double x, y, heading;
     private double mFL, mFR, mBL, mBR;  // motors
 
@@ -10,18 +10,38 @@ public class Robot {
     private static final double MOTOR_TO_LINEAR = 45.0;
     private static final double ROTATION_GAIN = 12.0;
     private double inconsistency = 0.0;
-    private final Random rng = new Random();
+    private final SplittableRandom rng; // per robot stream, seed it for reproducible runs
 
 
     private static final double ACCEL_0_TO_FULL = 25.0;
     private static final double DECEL_FULL_TO_0 = 15.0;
 
     public Robot() {
+        this(new SplittableRandom());
+    }
+
+    public Robot(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private Robot(SplittableRandom rng) {
+        this.rng = rng;
         this.x = 0;
         this.y = 0;
         this.heading = 0;
     }
 
+    // EULER: the original scheme, kept as default so recordings / RobotFleet stay bit-identical.
+    //        The smoothing factor rate * dt goes past 1 at dt > 0.04 and overshoots.
+    // EXACT: exponential velocity smoothing (exact for a step change in the motors) and the pose
+    //        advanced along the constant-twist arc of the step's mean velocity. Holds up at 50-100 ms.
+    // ADAPTIVE: EXACT with step doubling, splits a step until the two answers agree to adaptiveTol.
+    public enum Integrator { EULER, EXACT, ADAPTIVE }
+
+    private Integrator integrator = Integrator.EULER;
+    private double adaptiveTol = 0.01; // units
+    private static final int MAX_SPLITS = 6;
+
     public void update(double dt) {
         double mFL_eff = applyInconsistency(mFL);
         double mFR_eff = applyInconsistency(mFR);
@@ -32,6 +52,15 @@ public class Robot {
         double vy_target = (-mFL_eff + mFR_eff - mBL_eff + mBR_eff) / 4.0 * MOTOR_TO_LINEAR;
         double omega_target = (-mFL_eff + mFR_eff + mBL_eff - mBR_eff) / 4.0 * ROTATION_GAIN;
 
+        if (integrator == Integrator.EXACT) {
+            exactStep(dt, vx_target, vy_target, omega_target);
+            return;
+        }
+        if (integrator == Integrator.ADAPTIVE) {
+            adaptiveStep(dt, vx_target, vy_target, omega_target, 0);
+            return;
+        }
+
         vx = smoothAsymmetric(vx, vx_target, ACCEL_0_TO_FULL * dt, DECEL_FULL_TO_0 * dt);
         vy = smoothAsymmetric(vy, vy_target, ACCEL_0_TO_FULL * dt, DECEL_FULL_TO_0 * dt);
         omega = smoothAsymmetric(omega, omega_target, 8.0 * dt, 6.0 * dt);
@@ -44,6 +73,77 @@ public class Robot {
         y += (vx * Math.sin(heading) + vy * Math.cos(heading)) * dt;
     }
 
+    private void exactStep(double dt, double vxTarget, double vyTarget, double omegaTarget) {
+        if (dt <= 0) return; // nothing moves, and the mean velocities below would be 0 / 0
+        // each velocity relaxes as target + (v - target) * e^(-k dt); its mean over the step is
+        // target + (v - target) * (1 - e^(-k dt)) / (k dt)
+        double kx = vx < vxTarget ? ACCEL_0_TO_FULL : DECEL_FULL_TO_0;
+        double ky = vy < vyTarget ? ACCEL_0_TO_FULL : DECEL_FULL_TO_0;
+        double kw = omega < omegaTarget ? 8.0 : 6.0;
+        double ex = Math.exp(-kx * dt), ey = Math.exp(-ky * dt), ew = Math.exp(-kw * dt);
+        double vxMean = vxTarget + (vx - vxTarget) * (1.0 - ex) / (kx * dt);
+        double vyMean = vyTarget + (vy - vyTarget) * (1.0 - ey) / (ky * dt);
+        double omegaMean = omegaTarget + (omega - omegaTarget) * (1.0 - ew) / (kw * dt);
+        vx = vxTarget + (vx - vxTarget) * ex;
+        vy = vyTarget + (vy - vyTarget) * ey;
+        omega = omegaTarget + (omega - omegaTarget) * ew;
+
+        // constant twist over the step: displacement in the body frame at the start of the step
+        double dTheta = omegaMean * dt;
+        double s, c; // sin(dTheta) / omega, (1 - cos(dTheta)) / omega
+        if (Math.abs(dTheta) < 1e-6) {
+            s = dt * (1.0 - dTheta * dTheta / 6.0);
+            c = dt * (dTheta / 2.0);
+        } else {
+            s = Math.sin(dTheta) / omegaMean;
+            c = (1.0 - Math.cos(dTheta)) / omegaMean;
+        }
+        double bx = vxMean * s - vyMean * c;
+        double by = vxMean * c + vyMean * s;
+
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        x += bx * cos - by * sin;
+        y += bx * sin + by * cos;
+        heading += dTheta;
+        while (heading > Math.PI) heading -= 2 * Math.PI;
+        while (heading < -Math.PI) heading += 2 * Math.PI;
+    }
+
+    // one full step vs two half steps from the same state, keep the halves if they agree
+    private void adaptiveStep(double dt, double vxTarget, double vyTarget, double omegaTarget, int depth) {
+        double x0 = x, y0 = y, h0 = heading, vx0 = vx, vy0 = vy, w0 = omega;
+        exactStep(dt, vxTarget, vyTarget, omegaTarget);
+        double xFull = x, yFull = y;
+
+        x = x0; y = y0; heading = h0; vx = vx0; vy = vy0; omega = w0;
+        exactStep(dt / 2, vxTarget, vyTarget, omegaTarget);
+        exactStep(dt / 2, vxTarget, vyTarget, omegaTarget);
+        if (depth >= MAX_SPLITS || Math.hypot(x - xFull, y - yFull) <= adaptiveTol) return;
+
+        x = x0; y = y0; heading = h0; vx = vx0; vy = vy0; omega = w0;
+        adaptiveStep(dt / 2, vxTarget, vyTarget, omegaTarget, depth + 1);
+        adaptiveStep(dt / 2, vxTarget, vyTarget, omegaTarget, depth + 1);
+    }
+
+    public void setIntegrator(Integrator integrator) { this.integrator = integrator; }
+    public Integrator getIntegrator() { return integrator; }
+    public void setAdaptiveTolerance(double adaptiveTol) { this.adaptiveTol = adaptiveTol; }
+
+    // MatchWorld collision response: move by (dx, dy) and drop any velocity into the contact.
+    // (nx, ny) is the unit normal pointing away from whatever was hit, c / s = cos / sin of heading
+    void applyContact(double dx, double dy, double nx, double ny, double c, double s) {
+        x += dx;
+        y += dy;
+        double fvx = vx * c - vy * s;
+        double fvy = vx * s + vy * c;
+        double into = fvx * nx + fvy * ny;
+        if (into < 0) {
+            fvx -= into * nx;
+            fvy -= into * ny;
+            vx = fvx * c + fvy * s;
+            vy = -fvx * s + fvy * c;
+        }
+    }
 
     public void setPosition(double x, double y) { this.x = x; this.y = y; }
     public void setHeading(double heading) { this.heading = heading; }
@@ -64,6 +164,11 @@ public class Robot {
     public double getY() { return y;}
     public double getHeading() { return heading; }
 
+    // robot-frame velocities (units/sec, rad/sec)
+    public double getVX() { return vx; }
+    public double getVY() { return vy; }
+    public double getOmega() { return omega; }
+
     public void setInconsistency(double inconsistency) { this.inconsistency = inconsistency; }
 
     public void setPose(Pose pose) {
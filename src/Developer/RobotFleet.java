@@ -0,0 +1,159 @@
+package Developer;
+
+// Structure-of-arrays version of Robot for big sweeps: every field is a primitive column,
+// so stepping 100k robots touches a few flat arrays and allocates nothing.
+// Same asymmetric smoothing + mecanum kinematics as Robot.update, and with zero
+// inconsistency every robot matches a Robot driven with the same motor powers bit-for-bit.
+public class RobotFleet {
+    private static final double MOTOR_TO_LINEAR = 45.0;
+    private static final double ROTATION_GAIN = 12.0;
+    private static final double ACCEL_0_TO_FULL = 25.0;
+    private static final double DECEL_FULL_TO_0 = 15.0;
+    private static final double ROT_ACCEL = 8.0;
+    private static final double ROT_DECEL = 6.0;
+
+    private final int size;
+
+    private final double[] x, y, heading;
+    private final double[] vx, vy, omega;
+    private final double[] mFL, mFR, mBL, mBR; // motors
+
+    // noisy motor powers for the current tick, only filled when inconsistency != 0
+    private final double[] eFL, eFR, eBL, eBR;
+    private final long[] rngState; // splitmix64 state per robot, no Random objects
+    private double inconsistency = 0.0;
+
+    public RobotFleet(int size) {
+        this(size, System.nanoTime());
+    }
+
+    public RobotFleet(int size, long seed) {
+        this.size = size;
+        x = new double[size];
+        y = new double[size];
+        heading = new double[size];
+        vx = new double[size];
+        vy = new double[size];
+        omega = new double[size];
+        mFL = new double[size];
+        mFR = new double[size];
+        mBL = new double[size];
+        mBR = new double[size];
+        eFL = new double[size];
+        eFR = new double[size];
+        eBL = new double[size];
+        eBR = new double[size];
+        rngState = new long[size];
+        for (int i = 0; i < size; i++) {
+            rngState[i] = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    public int size() { return size; }
+
+    public void update(double dt) {
+        update(dt, 0, size);
+    }
+
+    // advances robots [from, to), so callers can split the fleet across threads
+    public void update(double dt, int from, int to) {
+        double[] fl = mFL, fr = mFR, bl = mBL, br = mBR;
+        if (inconsistency != 0.0) {
+            applyInconsistency(from, to);
+            fl = eFL;
+            fr = eFR;
+            bl = eBL;
+            br = eBR;
+        }
+
+        double accel = ACCEL_0_TO_FULL * dt;
+        double decel = DECEL_FULL_TO_0 * dt;
+        double rotAccel = ROT_ACCEL * dt;
+        double rotDecel = ROT_DECEL * dt;
+
+        // pass 1: velocities. straight-line arithmetic over columns, no calls, so C2 can unroll / vectorize it
+        for (int i = from; i < to; i++) {
+            double a = fl[i], b = fr[i], c = bl[i], d = br[i];
+            double vxT = (a + b + c + d) / 4.0 * MOTOR_TO_LINEAR;
+            double vyT = (-a + b - c + d) / 4.0 * MOTOR_TO_LINEAR;
+            double omT = (-a + b + c - d) / 4.0 * ROTATION_GAIN;
+
+            double cx = vx[i], cy = vy[i], co = omega[i];
+            vx[i] = cx < vxT ? cx + accel * (vxT - cx) : (cx > vxT ? cx + decel * (vxT - cx) : cx);
+            vy[i] = cy < vyT ? cy + accel * (vyT - cy) : (cy > vyT ? cy + decel * (vyT - cy) : cy);
+            omega[i] = co < omT ? co + rotAccel * (omT - co) : (co > omT ? co + rotDecel * (omT - co) : co);
+        }
+
+        // pass 2: heading + wrap
+        for (int i = from; i < to; i++) {
+            double h = heading[i] + omega[i] * dt;
+            if (h > Math.PI) h -= 2 * Math.PI;
+            if (h < -Math.PI) h += 2 * Math.PI;
+            heading[i] = h;
+        }
+
+        // pass 3: field-frame position with the new heading (same order as Robot.update)
+        for (int i = from; i < to; i++) {
+            double h = heading[i];
+            double cos = Math.cos(h);
+            double sin = Math.sin(h);
+            double bx = vx[i], by = vy[i];
+            x[i] += (bx * cos - by * sin) * dt;
+            y[i] += (bx * sin + by * cos) * dt;
+        }
+    }
+
+    private void applyInconsistency(int from, int to) {
+        double inc = inconsistency;
+        for (int i = from; i < to; i++) {
+            eFL[i] = noisy(i, mFL[i], inc);
+            eFR[i] = noisy(i, mFR[i], inc);
+            eBL[i] = noisy(i, mBL[i], inc);
+            eBR[i] = noisy(i, mBR[i], inc);
+        }
+    }
+
+    private double noisy(int i, double power, double inc) {
+        if (power == 0.0) return power;
+        long z = (rngState[i] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        double u = (z >>> 11) * 0x1.0p-53; // [0, 1)
+        return power + (u * 2.0 - 1.0) * inc;
+    }
+
+    public void setInconsistency(double inconsistency) { this.inconsistency = inconsistency; }
+
+    public void setPose(int i, Pose pose) {
+        x[i] = pose.x;
+        y[i] = pose.y;
+        heading[i] = pose.heading;
+    }
+
+    public void setMotors(int i, double fl, double fr, double bl, double br) {
+        mFL[i] = fl;
+        mFR[i] = fr;
+        mBL[i] = bl;
+        mBR[i] = br;
+    }
+
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getHeading(int i) { return heading[i]; }
+    public double getVX(int i) { return vx[i]; }
+    public double getVY(int i) { return vy[i]; }
+    public double getOmega(int i) { return omega[i]; }
+
+    // raw columns for bulk controllers / analysis. writes go straight into the fleet
+    public double[] xColumn() { return x; }
+    public double[] yColumn() { return y; }
+    public double[] headingColumn() { return heading; }
+    public double[] vxColumn() { return vx; }
+    public double[] vyColumn() { return vy; }
+    public double[] omegaColumn() { return omega; }
+    public double[] mFLColumn() { return mFL; }
+    public double[] mFRColumn() { return mFR; }
+    public double[] mBLColumn() { return mBL; }
+    public double[] mBRColumn() { return mBR; }
+}
@@ -0,0 +1,20 @@
+package Developer;
+
+// Fixed-step simulated clock. Loops read time from here instead of System.currentTimeMillis,
+// so a run depends only on its inputs and can be replayed tick for tick at any speed.
+public class SimClock {
+    private final double dt;
+    private long tick = 0;
+
+    public SimClock(double dt) {
+        this.dt = dt;
+    }
+
+    public void advance() {
+        tick++;
+    }
+
+    public double getDt() { return dt; }
+    public long getTick() { return tick; }
+    public double getTimeSec() { return tick * dt; }
+}
@@ -0,0 +1,114 @@
+package Developer;
+
+import java.util.SplittableRandom;
+
+// Fake sensors on a Robot: four mecanum wheel encoders and an IMU heading, with the kind of error
+// the real ones have. Call sample(dt) once per physics tick, after robot.update.
+//
+// Wheel travel is the robot's true motion over the tick run back through Robot's own mecanum mixing
+// (the inverse of the vx / vy / omega sums in Robot.update), so with the noise turned off the encoders
+// agree exactly with where the robot went. Each wheel then gets
+//   - a fixed scale error (wheel diameter, drawn once per reset)
+//   - slip: gaussian noise proportional to how far that wheel moved this tick
+//   - quantisation to whole encoder ticks
+// The IMU reads true heading + a random-walk bias + white noise. MatchWorld pushes show up as wheel
+// travel too, which is optimistic, a shoved robot mostly slides.
+public class SimulatedOdometry {
+    public static final int FL = 0, FR = 1, BL = 2, BR = 3;
+    public static final double TICKS_PER_UNIT = 40.0;
+    // Robot's MOTOR_TO_LINEAR / ROTATION_GAIN: a wheel moving 1 unit turns the robot GAIN / LINEAR rad
+    static final double LINEAR = 45.0;
+    static final double GAIN = 12.0;
+
+    private final Robot robot;
+    private final SplittableRandom rng;
+
+    private double scaleSigma = 0.01;  // per wheel, fraction of travel
+    private double slipSigma = 0.02;   // per tick, fraction of that tick's travel
+    private double imuNoise = Math.toRadians(0.1);
+    private double imuBiasWalk = Math.toRadians(0.05); // rad per sqrt(second)
+
+    private final double[] scale = new double[4];
+    private final double[] travel = new double[4]; // noisy wheel distance since reset, units
+    private final long[] ticks = new long[4];
+    private double imuBias, imuHeading;
+    private double lastX, lastY, lastHeading;
+
+    public SimulatedOdometry(Robot robot) {
+        this(robot, new SplittableRandom().nextLong());
+    }
+
+    public SimulatedOdometry(Robot robot, long seed) {
+        this.robot = robot;
+        this.rng = new SplittableRandom(seed);
+        reset();
+    }
+
+    // zero everything at the robot's current pose, draws new wheel scale errors
+    public void reset() {
+        for (int i = 0; i < 4; i++) {
+            scale[i] = 1.0 + scaleSigma * gaussian();
+            travel[i] = 0.0;
+            ticks[i] = 0;
+        }
+        imuBias = 0.0;
+        lastX = robot.getX();
+        lastY = robot.getY();
+        lastHeading = robot.getHeading();
+        imuHeading = lastHeading;
+    }
+
+    public void sample(double dt) {
+        double x = robot.getX(), y = robot.getY(), h = robot.getHeading();
+        double dTheta = wrap(h - lastHeading);
+        double mid = lastHeading + dTheta / 2;
+        double wx = x - lastX, wy = y - lastY;
+        double cos = Math.cos(mid), sin = Math.sin(mid);
+        double bx = wx * cos + wy * sin;   // robot frame, forward
+        double by = -wx * sin + wy * cos;  // robot frame, left
+        double c = dTheta * LINEAR / GAIN;
+        lastX = x;
+        lastY = y;
+        lastHeading = h;
+
+        addTravel(FL, bx - by - c);
+        addTravel(FR, bx + by + c);
+        addTravel(BL, bx - by + c);
+        addTravel(BR, bx + by - c);
+
+        if (dt > 0) imuBias += imuBiasWalk * Math.sqrt(dt) * gaussian();
+        imuHeading = wrap(h + imuBias + imuNoise * gaussian());
+    }
+
+    private void addTravel(int wheel, double d) {
+        double noisy = d * scale[wheel];
+        if (slipSigma > 0 && d != 0) noisy += Math.abs(d) * slipSigma * gaussian();
+        travel[wheel] += noisy;
+        ticks[wheel] = Math.round(travel[wheel] * TICKS_PER_UNIT);
+    }
+
+    private double gaussian() {
+        // Box-Muller without the cached second value, SplittableRandom has no nextGaussian on 17
+        double u = 1.0 - rng.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2 * Math.PI * rng.nextDouble());
+    }
+
+    static double wrap(double a) {
+        while (a > Math.PI) a -= 2 * Math.PI;
+        while (a < -Math.PI) a += 2 * Math.PI;
+        return a;
+    }
+
+    // encoder count since reset, FL / FR / BL / BR
+    public long getTicks(int wheel) { return ticks[wheel]; }
+    public double getImuHeading() { return imuHeading; }
+    public Robot getRobot() { return robot; }
+
+    // noise settings take effect from the next sample (scale from the next reset). All 0 = perfect sensors
+    public void setScaleSigma(double scaleSigma) { this.scaleSigma = scaleSigma; }
+    public void setSlipSigma(double slipSigma) { this.slipSigma = slipSigma; }
+    public void setImuNoise(double radians) { this.imuNoise = radians; }
+    public void setImuBiasWalk(double radiansPerSqrtSec) { this.imuBiasWalk = radiansPerSqrtSec; }
+
+    public double getImuNoise() { return imuNoise; }
+}
@@ -0,0 +1,115 @@
+package Developer;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs the control loop + physics on its own thread at a fixed timestep, independent of painting.
+// Real time is fed into an accumulator and drained in whole steps, so a slow paint or a GC pause
+// makes the sim catch up instead of slowing simulated time. After each step the robot (and the rest
+// of the match, if there is one) is copied into an immutable WorldSnapshot and swapped into an
+// AtomicReference, so the renderer never reads a Robot the sim thread is writing.
+public class SimulationLoop {
+    private static final long MAX_FRAME_NANOS = 250_000_000L; // after a longer stall, drop time instead of spiralling
+
+    private final Robot robot;
+    private final Runnable step;
+    private final long stepNanos;
+    private final double dt;
+    private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>();
+    private volatile MatchWorld world; // optional, its robots go into the snapshot too
+
+    private volatile boolean running = false;
+    private Thread thread;
+    private long steps = 0;
+    private LoopTiming timing; // optional
+
+    // step must advance the robot by exactly 1 / physicsHz seconds
+    public SimulationLoop(Robot robot, Runnable step, double physicsHz) {
+        this.robot = robot;
+        this.step = step;
+        this.dt = 1.0 / physicsHz;
+        this.stepNanos = Math.round(1e9 / physicsHz);
+    }
+
+    // records PERIOD and LOOP for every step
+    public void setTiming(LoopTiming timing) {
+        this.timing = timing;
+    }
+
+    // call before start(); step must be what advances this world
+    public void setWorld(MatchWorld world) {
+        this.world = world;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        publish();
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    private void run() {
+        long last = System.nanoTime();
+        long accumulator = 0;
+        long lastStepStart = 0;
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - last, MAX_FRAME_NANOS);
+            last = now;
+
+            while (accumulator >= stepNanos && running) {
+                LoopTiming t = timing;
+                long stepStart = t != null ? System.nanoTime() : 0;
+                if (t != null && lastStepStart != 0) t.record(LoopTiming.PERIOD, stepStart - lastStepStart);
+                lastStepStart = stepStart;
+                try {
+                    step.run();
+                    if (t != null) t.stop(LoopTiming.LOOP, stepStart);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    running = false;
+                    return;
+                }
+                steps++;
+                accumulator -= stepNanos;
+                publish();
+            }
+
+            long sleep = stepNanos - accumulator;
+            if (sleep > 0) LockSupport.parkNanos(sleep);
+        }
+    }
+
+    private void publish() {
+        double[] state = new double[FieldPanel.MAX_DRAWN * FieldPanel.STATE_STRIDE];
+        int n = FieldPanel.fillState(state, robot, world);
+        latest.set(new WorldSnapshot(steps, steps * dt, System.nanoTime(), state, n, latest.get()));
+    }
+
+    public WorldSnapshot getSnapshot() {
+        return latest.get();
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -3,42 +3,165 @@ package Developer;
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 public class Telemetry {
+    private static final int REFRESH_MS = 100; // console redraw rate, independent of how often values change
+
     private JFrame frame;
     private JTextArea textArea;
-    private List<LineData> lines = new ArrayList<>();
+    private Timer refreshTimer;
+    private final List<LineData> lines = new ArrayList<>(); // display order
+    // label -> line, kept in access order so the least recently updated line is always first
+    private final LinkedHashMap<String, LineData> index = new LinkedHashMap<>(16, 0.75f, true);
+    // channels are never reordered on set(), they just hide once stale and stay valid
+    private final HashMap<String, LineData> channelIndex = new HashMap<>();
+    private final List<DoubleChannel> doubleChannels = new ArrayList<>();
+    private final List<BooleanChannel> booleanChannels = new ArrayList<>();
+    private volatile TelemetrySink[] sinks = new TelemetrySink[0]; // copy on write, publish() just reads it
+    private String shownText = "";
     private static Telemetry instance;
+    private final boolean headless; // no window, values are still tracked
 
-    private static class LineData {
-        String label;
-        Object value;
-        long lastUpdatedMs;
+    private boolean dirty = false;
+    private volatile int refreshCount = 0;      // bumped every refresh, used as a cheap clock for expiry
+    private long staleAfterMs = 2000L; // lines not updated for this long are dropped
+    private final StringBuilder text = new StringBuilder();
+
+    // one console row. addLine rows hold an Object, channels keep their value in a primitive field
+    abstract static class LineData {
+        final String label;
+        int lastRefresh; // refreshCount when the value was last set
+        boolean everSet;
 
-        LineData(String label, Object value) {
+        LineData(String label, int refresh) {
             this.label = label;
+            this.lastRefresh = refresh;
+        }
+
+        abstract void setObject(Object value);
+        abstract void appendValue(StringBuilder sb);
+    }
+
+    private static final class ObjectLine extends LineData {
+        Object value;
+
+        ObjectLine(String label, int refresh) {
+            super(label, refresh);
+        }
+
+        @Override
+        void setObject(Object value) {
             this.value = value;
-            this.lastUpdatedMs = System.currentTimeMillis();
         }
 
-        void updateValue(Object value) {
+        @Override
+        void appendValue(StringBuilder sb) {
+            if (value instanceof Number) {
+                // round numbers to 0.01 precision
+                appendFixed2(sb, ((Number) value).doubleValue());
+            } else {
+                sb.append(value);
+            }
+        }
+    }
+
+    // handle from doubleChannel(): set() is a field store, no boxing and no label lookup
+    public static final class DoubleChannel extends LineData {
+        private final Telemetry owner;
+        private double value;
+
+        DoubleChannel(Telemetry owner, String label) {
+            super(label, owner.refreshCount);
+            this.owner = owner;
+        }
+
+        public void set(double value) {
+            this.value = value;
+            this.lastRefresh = owner.refreshCount;
+            this.everSet = true;
+        }
+
+        public double get() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        void setObject(Object value) {
+            if (value instanceof Number) set(((Number) value).doubleValue());
+        }
+
+        @Override
+        void appendValue(StringBuilder sb) {
+            appendFixed2(sb, value);
+        }
+    }
+
+    public static final class BooleanChannel extends LineData {
+        private final Telemetry owner;
+        private boolean value;
+
+        BooleanChannel(Telemetry owner, String label) {
+            super(label, owner.refreshCount);
+            this.owner = owner;
+        }
+
+        public void set(boolean value) {
             this.value = value;
-            this.lastUpdatedMs = System.currentTimeMillis();
+            this.lastRefresh = owner.refreshCount;
+            this.everSet = true;
+        }
+
+        public boolean get() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        void setObject(Object value) {
+            if (value instanceof Boolean) set((Boolean) value);
+        }
+
+        @Override
+        void appendValue(StringBuilder sb) {
+            sb.append(value);
         }
     }
 
-    private Telemetry() {
-        createWindow();
+    private Telemetry(boolean headless) {
+        this.headless = headless;
+        if (!headless) {
+            createWindow();
+        }
     }
 
-    public static Telemetry getInstance() {
+    // falls back to a windowless instance on headless machines instead of throwing HeadlessException
+    public static synchronized Telemetry getInstance() {
         if (instance == null) {
-            instance = new Telemetry();
+            instance = new Telemetry(GraphicsEnvironment.isHeadless());
         }
         return instance;
     }
 
+    // separate windowless instance for batch / CI runs, never touches swing
+    public static Telemetry createHeadless() {
+        return new Telemetry(true);
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
     private void createWindow() {
         frame = new JFrame("Telemetry Console");
         textArea = new JTextArea();
@@ -51,58 +174,186 @@ public class Telemetry {
         frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
+
+        // one redraw per period no matter how many addLine calls happen in between
+        refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refreshTimer.start();
     }
 
+    // O(1): hash lookup + store, the console picks it up on its next refresh
     public void addLine(String label, Object value) {
         synchronized (lines) {
-            // update existing line if present
-            for (LineData ld : lines) {
-                if (ld.label.equals(label)) {
-                    ld.updateValue(value);
-                    updateDisplay();
-                    return;
+            LineData ld = channelIndex.get(label);
+            if (ld == null) {
+                ld = index.get(label); // also moves it to the fresh end
+                if (ld == null) {
+                    ld = new ObjectLine(label, refreshCount);
+                    index.put(label, ld);
+                    lines.add(ld);
                 }
             }
-            // otherwise add new one
-            lines.add(new LineData(label, value));
+            ld.setObject(value);
+            ld.lastRefresh = refreshCount;
+            ld.everSet = true;
+            dirty = true;
+        }
+    }
+
+    // register once, then publish from hot loops with channel.set(value)
+    public DoubleChannel doubleChannel(String label) {
+        synchronized (lines) {
+            LineData existing = channelIndex.get(label);
+            if (existing instanceof DoubleChannel) return (DoubleChannel) existing;
+            DoubleChannel ch = new DoubleChannel(this, label);
+            registerChannel(ch, existing);
+            doubleChannels.add(ch);
+            return ch;
         }
-        updateDisplay();
     }
 
-    public void removeStale(long idleMs) {
-        long now = System.currentTimeMillis();
+    public BooleanChannel booleanChannel(String label) {
         synchronized (lines) {
-            lines.removeIf(line -> (now - line.lastUpdatedMs) > idleMs);
+            LineData existing = channelIndex.get(label);
+            if (existing instanceof BooleanChannel) return (BooleanChannel) existing;
+            BooleanChannel ch = new BooleanChannel(this, label);
+            registerChannel(ch, existing);
+            booleanChannels.add(ch);
+            return ch;
+        }
+    }
+
+    // takes over the row of a plain addLine line (or another channel) with the same label
+    private void registerChannel(LineData ch, LineData existingChannel) {
+        LineData old = existingChannel != null ? existingChannel : index.remove(ch.label);
+        if (old != null) {
+            lines.set(lines.indexOf(old), ch);
+            if (old instanceof DoubleChannel) doubleChannels.remove(old);
+            if (old instanceof BooleanChannel) booleanChannels.remove(old);
+        } else {
+            lines.add(ch);
         }
-        updateDisplay();
+        channelIndex.put(ch.label, ch);
     }
 
-    public void removeStale() {
-        removeStale(2000L);
+    // snapshot of every double channel, in registration order
+    public List<DoubleChannel> getDoubleChannels() {
+        synchronized (lines) {
+            return new ArrayList<>(doubleChannels);
+        }
     }
 
+    // snapshot of every boolean channel, in registration order
+    public List<BooleanChannel> getBooleanChannels() {
+        synchronized (lines) {
+            return new ArrayList<>(booleanChannels);
+        }
+    }
+
+    // binds the sink to the channels registered so far, it gets a frame on every publish()
+    public void addSink(TelemetrySink sink) {
+        sink.attach(this);
+        synchronized (lines) {
+            TelemetrySink[] next = java.util.Arrays.copyOf(sinks, sinks.length + 1);
+            next[sinks.length] = sink;
+            sinks = next;
+        }
+    }
+
+    public void removeSink(TelemetrySink sink) {
+        synchronized (lines) {
+            List<TelemetrySink> next = new ArrayList<>(java.util.Arrays.asList(sinks));
+            next.remove(sink);
+            sinks = next.toArray(new TelemetrySink[0]);
+        }
+    }
+
+    // once per tick after the channels are set. Nothing to do without sinks
+    public void publish(double simTimeSec) {
+        for (TelemetrySink sink : sinks) sink.publish(simTimeSec);
+    }
+
+    public void setStaleTimeout(long idleMs) {
+        synchronized (lines) {
+            staleAfterMs = idleMs;
+        }
+    }
+
+    // forces the next refresh to redraw even if nothing changed
     public void updateDisplay() {
-        SwingUtilities.invokeLater(() -> {
-            StringBuilder sb = new StringBuilder();
-            synchronized (lines) {
-                for (LineData line : lines) {
-                    String valueStr;
-                    if (line.value instanceof Number) {
-                        // round numbers to 0.01 precision
-                        double val = ((Number) line.value).doubleValue();
-                        valueStr = String.format("%.2f", val);
-                    } else {
-                        valueStr = String.valueOf(line.value);
-                    }
-                    sb.append(String.format("%-25s: %s%n", line.label, valueStr));
-                }
+        synchronized (lines) {
+            dirty = true;
+        }
+    }
+
+    // runs on the EDT every REFRESH_MS
+    private void refresh() {
+        String shown;
+        synchronized (lines) {
+            refreshCount++;
+            expireStale();
+            // channel writes don't take the lock, so with any registered we re-render and diff
+            if (!dirty && channelIndex.isEmpty()) return;
+            dirty = false;
+            shown = render();
+        }
+        if (shown.equals(shownText)) return;
+        shownText = shown;
+        textArea.setText(shown);
+        textArea.setCaretPosition(textArea.getDocument().getLength());
+    }
+
+    // only looks at the oldest lines, stops at the first one that is still fresh
+    private void expireStale() {
+        int maxAge = (int) (staleAfterMs / REFRESH_MS);
+        Iterator<LineData> it = index.values().iterator();
+        while (it.hasNext()) {
+            LineData ld = it.next();
+            if (refreshCount - ld.lastRefresh <= maxAge) break;
+            it.remove();
+            lines.remove(ld);
+            dirty = true;
+        }
+    }
+
+    // the text the console shows, one "label: value" row per line
+    public String render() {
+        synchronized (lines) {
+            int maxAge = (int) (staleAfterMs / REFRESH_MS);
+            int now = refreshCount;
+            text.setLength(0);
+            for (LineData line : lines) {
+                // unset channels and channels that went quiet are hidden, plain lines were already expired
+                if (!line.everSet || now - line.lastRefresh > maxAge) continue;
+                text.append(line.label);
+                for (int pad = line.label.length(); pad < 25; pad++) text.append(' ');
+                text.append(": ");
+                line.appendValue(text);
+                text.append(System.lineSeparator());
             }
-            textArea.setText(sb.toString());
-            textArea.setCaretPosition(textArea.getDocument().getLength());
-        });
+            return text.toString();
+        }
+    }
+
+    // identical to String.format("%.2f") (fuzzed against it), without the Formatter garbage; huge values just use the Formatter
+    private static void appendFixed2(StringBuilder sb, double val) {
+        if (Double.isNaN(val) || Double.isInfinite(val) || Math.abs(val) >= 1e12) {
+            sb.append(String.format("%.2f", val));
+            return;
+        }
+        double abs = Math.abs(val);
+        // %.2f rounds the shortest decimal form half-up (1.005 -> "1.01", 1.7349999999999999 -> "1.73"),
+        // but abs * 100 can land on the wrong side of the .5, so compare abs against the half-way double
+        long hundredths = (long) (abs * 100.0);
+        if (abs >= (hundredths + 0.5) / 100.0) hundredths++;
+        // sign bit, not val < 0: %.2f prints -0.00 for -0.0 and anything in (-0.005, 0) too
+        if (Double.doubleToRawLongBits(val) < 0) sb.append('-');
+        sb.append(hundredths / 100).append('.');
+        long frac = hundredths % 100;
+        if (frac < 10) sb.append('0');
+        sb.append(frac);
     }
 
     public void setVisible(boolean visible) {
-        frame.setVisible(visible);
+        if (frame != null) frame.setVisible(visible);
     }
-}
\ No newline at end of file
+}
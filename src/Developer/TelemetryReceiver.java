@@ -0,0 +1,263 @@
+package Developer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+// Reads what a TelemetryStream sends: a stand-in for the dashboard, and the other half of the self check.
+// TelemetryReceiver udp <port>   -> prints the latest values once a second
+// TelemetryReceiver tcp <port>
+// TelemetryReceiver selftest     -> streams 1 kHz over loopback to itself, exits 1 if frames go missing
+public class TelemetryReceiver implements AutoCloseable {
+    private static final int MAX_FRAME = 65536;
+
+    private final boolean tcp;
+    private DatagramChannel udp;
+    private ServerSocketChannel server;
+    private final Thread reader;
+    private volatile boolean running = true;
+
+    private final ByteBuffer frame = ByteBuffer.allocateDirect(MAX_FRAME).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] labelBytes = new byte[MAX_FRAME];
+
+    // latest frame, guarded by this
+    private String[] labels = new String[0];
+    private double[] values = new double[0];
+    private double simTimeSec = Double.NaN;
+    private long frames = 0, lost = 0, badFrames = 0;
+    private long lastSeq = -1;
+
+    private TelemetryReceiver(int port, boolean tcp) {
+        this.tcp = tcp;
+        try {
+            if (tcp) {
+                server = ServerSocketChannel.open();
+                server.bind(new InetSocketAddress("127.0.0.1", port));
+            } else {
+                udp = DatagramChannel.open();
+                udp.socket().setReceiveBufferSize(1 << 20);
+                udp.bind(new InetSocketAddress("127.0.0.1", port));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not listen on port " + port, e);
+        }
+        reader = new Thread(this::readLoop, "telemetry-receiver");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // port 0 picks a free one, see getPort()
+    public static TelemetryReceiver udp(int port) {
+        return new TelemetryReceiver(port, false);
+    }
+
+    public static TelemetryReceiver tcp(int port) {
+        return new TelemetryReceiver(port, true);
+    }
+
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) (tcp ? server.getLocalAddress() : udp.getLocalAddress())).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readLoop() {
+        try {
+            if (!tcp) {
+                while (running) {
+                    frame.clear();
+                    udp.receive(frame);
+                    frame.flip();
+                    handle(frame);
+                }
+            } else {
+                while (running) {
+                    try (SocketChannel client = server.accept()) {
+                        while (running && readFully(client, 4)) {
+                            int length = frame.getInt(0);
+                            if (length <= 0 || length > MAX_FRAME || !readFully(client, length)) break;
+                            handle(frame);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // socket closed by close()
+        }
+    }
+
+    // leaves exactly n bytes in frame, false on end of stream
+    private boolean readFully(SocketChannel client, int n) throws IOException {
+        frame.clear().limit(n);
+        while (frame.hasRemaining()) {
+            if (client.read(frame) < 0) return false;
+        }
+        frame.flip();
+        return true;
+    }
+
+    private synchronized void handle(ByteBuffer buf) {
+        if (buf.remaining() < 8 || buf.getInt() != TelemetryStream.MAGIC) {
+            badFrames++;
+            return;
+        }
+        int kind = buf.getInt();
+        if (kind == TelemetryStream.KIND_SCHEMA) {
+            int count = buf.getInt();
+            if (labels.length != count) {
+                labels = new String[count];
+                values = new double[count];
+            }
+            for (int i = 0; i < count; i++) {
+                int len = buf.getShort() & 0xFFFF;
+                buf.get(labelBytes, 0, len);
+                labels[i] = new String(labelBytes, 0, len, StandardCharsets.UTF_8);
+            }
+        } else if (kind == TelemetryStream.KIND_DATA) {
+            long seq = buf.getLong();
+            if (lastSeq >= 0 && seq > lastSeq + 1) lost += seq - lastSeq - 1;
+            lastSeq = seq;
+            simTimeSec = buf.getDouble();
+            int count = buf.getInt();
+            if (count != values.length) {
+                // no schema yet (or a stale one), keep counting but don't guess at labels
+                frames++;
+                return;
+            }
+            for (int i = 0; i < count; i++) values[i] = buf.getFloat();
+            frames++;
+        } else {
+            badFrames++;
+        }
+    }
+
+    public synchronized long getFrames() { return frames; }
+    // gaps in the sequence numbers: dropped by the sender or lost on the way
+    public synchronized long getLost() { return lost; }
+    public synchronized long getBadFrames() { return badFrames; }
+    public synchronized double getSimTimeSec() { return simTimeSec; }
+
+    public synchronized String[] getLabels() {
+        return labels.clone();
+    }
+
+    public synchronized double[] getValues() {
+        return values.clone();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (udp != null) udp.close();
+            if (server != null) server.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 1 && args[0].equals("selftest")) {
+            boolean ok = selfTest(false) & selfTest(true);
+            System.out.println(ok ? "selftest ok" : "selftest FAILED");
+            System.exit(ok ? 0 : 1);
+        }
+        if (args.length != 2) {
+            System.out.println("usage: TelemetryReceiver udp|tcp <port>   or   TelemetryReceiver selftest");
+            return;
+        }
+        int port = Integer.parseInt(args[1]);
+        try (TelemetryReceiver rx = args[0].equals("tcp") ? tcp(port) : udp(port)) {
+            System.out.println("listening on " + args[0] + " port " + rx.getPort());
+            long lastFrames = 0;
+            while (true) {
+                Thread.sleep(1000);
+                long frames = rx.getFrames();
+                StringBuilder sb = new StringBuilder();
+                sb.append(String.format("t=%.2f  %d frames/s  lost %d", rx.getSimTimeSec(), frames - lastFrames, rx.getLost()));
+                String[] labels = rx.getLabels();
+                double[] values = rx.getValues();
+                for (int i = 0; i < labels.length; i++) sb.append(String.format("  %s=%.2f", labels[i], values[i]));
+                System.out.println(sb);
+                lastFrames = frames;
+            }
+        }
+    }
+
+    // 24 channels at 1 kHz for two seconds over loopback, then an unpaced burst that has to drop
+    // frames rather than stall the publisher
+    private static boolean selfTest(boolean overTcp) throws InterruptedException {
+        final int channelCount = 24;
+        final int hz = 1000;
+        final double seconds = 2.0;
+        final int burst = 200_000;
+
+        Telemetry telemetry = Telemetry.createHeadless();
+        Telemetry.DoubleChannel[] channels = new Telemetry.DoubleChannel[channelCount];
+        for (int i = 0; i < channelCount; i++) channels[i] = telemetry.doubleChannel("ch" + i);
+
+        boolean ok = true;
+        try (TelemetryReceiver rx = overTcp ? tcp(0) : udp(0);
+             TelemetryStream stream = overTcp ? TelemetryStream.tcp("127.0.0.1", rx.getPort())
+                     : TelemetryStream.udp("127.0.0.1", rx.getPort())) {
+            telemetry.addSink(stream);
+            if (overTcp) {
+                // first frames go out once the sender has connected
+                telemetry.publish(0.0);
+                Thread.sleep(100);
+            }
+
+            int ticks = (int) (hz * seconds);
+            long period = 1_000_000_000L / hz;
+            long publishNs = 0, worstNs = 0;
+            long startFrames = rx.getFrames();
+            long startPublished = stream.getPublished();
+            long startDropped = stream.getDropped();
+            long next = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++) {
+                for (int i = 0; i < channelCount; i++) channels[i].set(tick + i * 0.5);
+                long t0 = System.nanoTime();
+                telemetry.publish(tick / (double) hz);
+                long dt = System.nanoTime() - t0;
+                publishNs += dt;
+                worstNs = Math.max(worstNs, dt);
+                next += period;
+                while (System.nanoTime() < next) LockSupport.parkNanos(next - System.nanoTime());
+            }
+            Thread.sleep(200);
+            long published = stream.getPublished() - startPublished;
+            long received = rx.getFrames() - startFrames;
+            long dropped = stream.getDropped() - startDropped;
+            double[] last = rx.getValues();
+            boolean valuesOk = last.length == channelCount && last[channelCount - 1] == (ticks - 1) + (channelCount - 1) * 0.5;
+            // published counts every attempt, frames dropped from a full ring included
+            boolean rateOk = published == ticks && received >= published * 0.99;
+            System.out.printf("%s 1 kHz: published %d, received %d, dropped %d, publish avg %.0f ns max %.0f us, last frame %s%n",
+                    overTcp ? "tcp" : "udp", published, received, dropped, publishNs / (double) ticks, worstNs / 1e3,
+                    valuesOk ? "matches" : "WRONG");
+            ok &= valuesOk && rateOk;
+
+            // nobody can keep up with this, it must drop instead of blocking
+            long t0 = System.nanoTime();
+            for (int tick = 0; tick < burst; tick++) {
+                channels[0].set(tick);
+                telemetry.publish(tick);
+            }
+            double perPublishNs = (System.nanoTime() - t0) / (double) burst;
+            long burstDropped = stream.getDropped() - startDropped - dropped;
+            Thread.sleep(200);
+            System.out.printf("%s burst: %d frames at %.0f ns each, %d dropped, receiver counted %d lost%n",
+                    overTcp ? "tcp" : "udp", burst, perPublishNs, burstDropped, rx.getLost());
+            ok &= perPublishNs < 10_000;
+        }
+        return ok;
+    }
+}
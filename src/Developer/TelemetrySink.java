@@ -0,0 +1,13 @@
+package Developer;
+
+// Somewhere a tick's telemetry goes besides the console. Telemetry.addSink() attaches it, then
+// Telemetry.publish() hands it one frame per tick on the control thread, so publish() must never block.
+public interface TelemetrySink extends AutoCloseable {
+    // bind channels here, the ones registered after this are not part of the frame
+    void attach(Telemetry telemetry);
+
+    void publish(double simTimeSec);
+
+    @Override
+    void close();
+}
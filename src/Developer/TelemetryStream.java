@@ -0,0 +1,224 @@
+package Developer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Streams every tick's double channels to a dashboard process over UDP or TCP.
+// publish() packs the values into one of RING pre-allocated frames and returns; a sender thread
+// does the socket I/O. If the sender is behind (slow dashboard, TCP back-pressure, no connection)
+// the ring is full and the frame is dropped and counted, the control loop never waits.
+//
+// Frames, little endian:
+//   schema  int MAGIC, int KIND_SCHEMA, int count, count x (short length, UTF-8 label)
+//   data    int MAGIC, int KIND_DATA, long seq, double simTime, int count, count x float value
+// The schema goes out first and again every SCHEMA_EVERY frames so a late dashboard can decode.
+// Over TCP every frame is prefixed with its int length. TelemetryReceiver is the matching reader.
+public class TelemetryStream implements TelemetrySink {
+    static final int MAGIC = 0x4F5A5453; // "OZTS"
+    static final int KIND_SCHEMA = 0;
+    static final int KIND_DATA = 1;
+    static final int DATA_HEADER = 4 + 4 + 8 + 8 + 4;
+    private static final int SCHEMA_EVERY = 1000;
+    private static final int RING = 16; // power of two
+    private static final long IDLE_PARK_NS = 250_000L; // sender polls, so publish() never makes a syscall
+    private static final int CONNECT_TIMEOUT_MS = 200;
+    private static final long RECONNECT_NS = 1_000_000_000L;
+
+    private final InetSocketAddress target;
+    private final boolean tcp;
+
+    private Telemetry.DoubleChannel[] channels = new Telemetry.DoubleChannel[0];
+    private ByteBuffer schema;
+    private final ByteBuffer[] ring = new ByteBuffer[RING];
+
+    // single producer (publish) / single consumer (sender) ring
+    private volatile long head = 0, tail = 0;
+    private volatile boolean running = false;
+    private Thread sender;
+    private long seq = 0;
+
+    // each written by one thread only
+    private volatile long dropped = 0;  // ring full
+    private volatile long failed = 0;   // sender couldn't get it out
+    private volatile long sent = 0;
+
+    private DatagramChannel udp;
+    private SocketChannel socket;
+    private final ByteBuffer lengthPrefix = ByteBuffer.allocateDirect(4).order(ByteOrder.LITTLE_ENDIAN);
+
+    private TelemetryStream(String host, int port, boolean tcp) {
+        this.target = new InetSocketAddress(host, port);
+        this.tcp = tcp;
+    }
+
+    public static TelemetryStream udp(String host, int port) {
+        return new TelemetryStream(host, port, false);
+    }
+
+    // connects from the sender thread, frames published before the connection is up are dropped
+    public static TelemetryStream tcp(String host, int port) {
+        return new TelemetryStream(host, port, true);
+    }
+
+    // "udp:host:port" or "tcp:host:port", udp if the prefix is left off
+    public static TelemetryStream parse(String spec) {
+        String[] parts = spec.split(":");
+        boolean isTcp = parts.length == 3 && parts[0].equals("tcp");
+        String host = parts[parts.length - 2];
+        int port = Integer.parseInt(parts[parts.length - 1]);
+        return new TelemetryStream(host, port, isTcp);
+    }
+
+    @Override
+    public void attach(Telemetry telemetry) {
+        if (running) throw new IllegalStateException("telemetry stream already attached");
+        List<Telemetry.DoubleChannel> list = telemetry.getDoubleChannels();
+        channels = list.toArray(new Telemetry.DoubleChannel[0]);
+
+        int schemaBytes = 12;
+        byte[][] labels = new byte[channels.length][];
+        for (int i = 0; i < channels.length; i++) {
+            labels[i] = channels[i].getLabel().getBytes(StandardCharsets.UTF_8);
+            schemaBytes += 2 + labels[i].length;
+        }
+        schema = ByteBuffer.allocateDirect(schemaBytes).order(ByteOrder.LITTLE_ENDIAN);
+        schema.putInt(MAGIC).putInt(KIND_SCHEMA).putInt(channels.length);
+        for (byte[] label : labels) schema.putShort((short) label.length).put(label);
+        schema.flip();
+
+        int frameBytes = DATA_HEADER + channels.length * 4;
+        for (int i = 0; i < RING; i++) {
+            ring[i] = ByteBuffer.allocateDirect(frameBytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        try {
+            if (!tcp) udp = DatagramChannel.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not open telemetry stream to " + target, e);
+        }
+        running = true;
+        sender = new Thread(this::sendLoop, "telemetry-stream");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    // control thread: a few stores into a pre-allocated frame, no locks, no I/O, no wakeups
+    @Override
+    public void publish(double simTimeSec) {
+        long h = head;
+        if (h - tail >= RING) {
+            // still takes a sequence number, so the receiver sees the gap and counts it as lost
+            seq++;
+            dropped++;
+            return;
+        }
+        ByteBuffer buf = ring[(int) (h & (RING - 1))];
+        buf.clear();
+        buf.putInt(MAGIC).putInt(KIND_DATA).putLong(seq++).putDouble(simTimeSec).putInt(channels.length);
+        for (Telemetry.DoubleChannel ch : channels) buf.putFloat((float) ch.get());
+        buf.flip();
+        head = h + 1;
+    }
+
+    private void sendLoop() {
+        long sinceSchema = SCHEMA_EVERY;
+        long nextConnect = 0;
+        while (running) {
+            if (tail == head) {
+                LockSupport.parkNanos(IDLE_PARK_NS);
+                continue;
+            }
+            if (tcp && socket == null) {
+                if (System.nanoTime() >= nextConnect && connect()) {
+                    sinceSchema = SCHEMA_EVERY; // new connection, new dashboard
+                } else {
+                    nextConnect = Math.max(nextConnect, System.nanoTime() + RECONNECT_NS);
+                    failed += head - tail;
+                    tail = head;
+                    continue;
+                }
+            }
+            if (sinceSchema >= SCHEMA_EVERY) {
+                schema.rewind();
+                if (send(schema)) sinceSchema = 0;
+            }
+            ByteBuffer buf = ring[(int) (tail & (RING - 1))];
+            if (send(buf)) sent++;
+            else failed++;
+            sinceSchema++;
+            tail = tail + 1;
+        }
+    }
+
+    private boolean connect() {
+        SocketChannel s = null;
+        try {
+            s = SocketChannel.open();
+            s.socket().setTcpNoDelay(true);
+            s.socket().connect(target, CONNECT_TIMEOUT_MS);
+            socket = s;
+            return true;
+        } catch (IOException e) {
+            try {
+                if (s != null) s.close();
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
+
+    private boolean send(ByteBuffer frame) {
+        try {
+            if (!tcp) {
+                return udp.send(frame, target) > 0;
+            }
+            lengthPrefix.clear();
+            lengthPrefix.putInt(frame.remaining()).flip();
+            while (lengthPrefix.hasRemaining()) socket.write(lengthPrefix);
+            while (frame.hasRemaining()) socket.write(frame); // blocks only this thread, the ring absorbs it
+            return true;
+        } catch (IOException e) {
+            // dashboard went away; udp just carries on, tcp reconnects on the next frame
+            if (tcp) closeSocket();
+            return false;
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {
+        }
+        socket = null;
+    }
+
+    public long getSent() { return sent; }
+    public long getDropped() { return dropped + failed; }
+    public long getPublished() { return seq; } // every publish() call, sent or dropped
+
+    @Override
+    public void close() {
+        running = false;
+        if (sender != null) {
+            LockSupport.unpark(sender);
+            try {
+                sender.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (udp != null) udp.close();
+        } catch (IOException ignored) {
+        }
+        closeSocket();
+    }
+}
@@ -0,0 +1,49 @@
+package Developer;
+
+// Immutable copy of every drawn robot, published by SimulationLoop after every physics step.
+// state is FieldPanel's captureState layout (STATE_STRIDE per robot, the loop's robot first); prev is
+// the step before's state, so the renderer can interpolate between them. Nothing here is written
+// after publishing, the next step gets a new array.
+public final class WorldSnapshot {
+    public final long step;
+    public final double simTimeSec;
+    public final long publishedNanos; // System.nanoTime() when published
+    public final int robots;
+    private final double[] state, prev;
+
+    WorldSnapshot(long step, double simTimeSec, long publishedNanos, double[] state, int robots, WorldSnapshot previous) {
+        this.step = step;
+        this.simTimeSec = simTimeSec;
+        this.publishedNanos = publishedNanos;
+        this.state = state;
+        this.robots = robots;
+        // a robot added since the last step has nothing to interpolate from
+        this.prev = previous != null && previous.robots == robots ? previous.state : state;
+    }
+
+    // 0 right when this step was published, 1 one physics step later
+    public double alpha(long nowNanos, long stepNanos) {
+        double a = (nowNanos - publishedNanos) / (double) stepNanos;
+        return a < 0 ? 0 : (a > 1 ? 1 : a);
+    }
+
+    // every robot into a captureState array, pose lerped between the last two steps, returns the count
+    public int copyTo(double[] into, double alpha) {
+        for (int i = 0; i < robots; i++) {
+            int b = i * FieldPanel.STATE_STRIDE;
+            into[b] = prev[b] + (state[b] - prev[b]) * alpha;
+            into[b + 1] = prev[b + 1] + (state[b + 1] - prev[b + 1]) * alpha;
+            into[b + 2] = lerpHeading(prev[b + 2], state[b + 2], alpha);
+            System.arraycopy(state, b + 3, into, b + 3, FieldPanel.STATE_STRIDE - 3);
+        }
+        return robots;
+    }
+
+    // shortest way round so a wrap at +-PI doesn't spin the sprite
+    private static double lerpHeading(double from, double to, double alpha) {
+        double d = to - from;
+        if (d > Math.PI) d -= 2 * Math.PI;
+        if (d < -Math.PI) d += 2 * Math.PI;
+        return from + d * alpha;
+    }
+}
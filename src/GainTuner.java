@@ -0,0 +1,178 @@
+import Developer.Pose;
+import Developer.Robot;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Searches PathingGains with headless runs instead of watching the Swing window.
+// (1+lambda) evolution strategy: every generation samples lambda gain sets around the best one so far,
+// scores all of them (and the incumbent again) on the same fresh batch of noisy seeds across every
+// core, keeps the winner and widens / narrows the step depending on whether anything beat it.
+// Score = mean routine time + errorWeight * mean settled error on action poses, unfinished runs and
+// legs ending further than failTolerance from their pose cost failPenalty each.
+public class GainTuner {
+    private final Pose[] poseList;
+    private final boolean[] actionPoses;
+    private final double inconsistency;
+    private final long baseSeed;
+
+    private int generations = 100;
+    private int lambda = 16;
+    private int runsPerCandidate = 64;
+    private double dt = HeadlessSim.DEFAULT_DT;
+    private double maxSimSec = 60.0;
+    private double errorWeight = 10.0;   // seconds per unit of mean arrival error
+    private double failTolerance = 2.0;
+    private double failPenalty = 60.0;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public GainTuner(Pose[] poseList, boolean[] actionPoses, double inconsistency, long baseSeed) {
+        this.poseList = poseList;
+        this.actionPoses = actionPoses;
+        this.inconsistency = inconsistency;
+        this.baseSeed = baseSeed;
+    }
+
+    public void setGenerations(int generations) { this.generations = generations; }
+    public void setLambda(int lambda) { this.lambda = lambda; }
+    public void setRunsPerCandidate(int runsPerCandidate) { this.runsPerCandidate = runsPerCandidate; }
+    public void setDt(double dt) { this.dt = dt; }
+    public void setMaxSimSec(double maxSimSec) { this.maxSimSec = maxSimSec; }
+    public void setErrorWeight(double errorWeight) { this.errorWeight = errorWeight; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public PathingGains tune(PathingGains start) {
+        SplittableRandom rng = new SplittableRandom(baseSeed);
+        int dims = PathingGains.NAMES.length;
+        double[] best = normalize(start.toArray());
+        double sigma = 0.15; // step in the [0,1] normalized box
+        double bestScore = Double.NaN;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int gen = 0; gen < generations; gen++) {
+                // slot 0 is the incumbent, re-scored on this generation's seeds so the comparison is fair
+                PathingGains[] candidates = new PathingGains[lambda + 1];
+                double[][] points = new double[lambda + 1][];
+                points[0] = best;
+                for (int c = 1; c <= lambda; c++) {
+                    double[] p = new double[dims];
+                    for (int d = 0; d < dims; d++) {
+                        p[d] = Math.max(0.0, Math.min(1.0, best[d] + sigma * gaussian(rng)));
+                    }
+                    points[c] = p;
+                }
+                for (int c = 0; c <= lambda; c++) candidates[c] = PathingGains.fromArray(denormalize(points[c]));
+
+                long t0 = System.nanoTime();
+                double[] scores = score(pool, candidates, gen);
+                double wallSec = (System.nanoTime() - t0) / 1e9;
+
+                int winner = 0;
+                for (int c = 1; c <= lambda; c++) {
+                    if (scores[c] < scores[winner]) winner = c;
+                }
+                if (winner != 0) {
+                    best = points[winner];
+                    sigma = Math.min(0.5, sigma * 1.3);
+                } else {
+                    sigma = Math.max(0.005, sigma * 0.7);
+                }
+                bestScore = scores[winner];
+                System.out.printf("gen %2d  best=%.3f  incumbent=%.3f  sigma=%.3f  (%.1fs)%n",
+                        gen, scores[winner], scores[0], sigma, wallSec);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        PathingGains result = PathingGains.fromArray(denormalize(best));
+        System.out.printf("best score %.3f: %s%n", bestScore, result);
+        return result;
+    }
+
+    // every candidate runs the same seeds, results land in their own slot
+    private double[] score(ForkJoinPool pool, PathingGains[] candidates, int gen) {
+        int n = candidates.length * runsPerCandidate;
+        double[] perRun = new double[n];
+        try {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+                int c = i / runsPerCandidate;
+                int run = i % runsPerCandidate;
+                Robot robot = new Robot(MonteCarlo.seedFor(baseSeed, gen, run));
+                robot.setInconsistency(inconsistency);
+                HeadlessSim.Result r = HeadlessSim.run(poseList, robot, new HeadlessSim.Options()
+                        .actions(actionPoses).gains(candidates[c]).dt(dt).maxSimSec(maxSimSec));
+                perRun[i] = scoreRun(r);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tuning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("tuning run failed", e.getCause());
+        }
+
+        double[] scores = new double[candidates.length];
+        for (int i = 0; i < n; i++) scores[i / runsPerCandidate] += perRun[i] / runsPerCandidate;
+        return scores;
+    }
+
+    private double scoreRun(HeadlessSim.Result r) {
+        double score = r.finished ? r.elapsedSec : maxSimSec + failPenalty;
+        double errSum = 0.0;
+        int errCount = 0;
+        for (int leg = 0; leg < r.legErrors.length; leg++) {
+            if (actionPoses != null && !actionPoses[leg + 1]) continue; // passed through, not meant to be exact
+            double e = r.legErrors[leg];
+            if (!(e <= failTolerance)) {
+                score += failPenalty;
+                continue;
+            }
+            errSum += e;
+            errCount++;
+        }
+        if (errCount > 0) score += errorWeight * errSum / errCount;
+        return score;
+    }
+
+    private static double[] normalize(double[] v) {
+        double[] out = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            out[i] = (v[i] - PathingGains.LOWER[i]) / (PathingGains.UPPER[i] - PathingGains.LOWER[i]);
+        }
+        return out;
+    }
+
+    private static double[] denormalize(double[] p) {
+        double[] out = new double[p.length];
+        for (int i = 0; i < p.length; i++) {
+            out[i] = PathingGains.LOWER[i] + p[i] * (PathingGains.UPPER[i] - PathingGains.LOWER[i]);
+        }
+        return out;
+    }
+
+    // Box-Muller, SplittableRandom has no nextGaussian on 17
+    private static double gaussian(SplittableRandom rng) {
+        double u = 1.0 - rng.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2 * Math.PI * rng.nextDouble());
+    }
+
+    // GainTuner [generations] [runsPerCandidate] [inconsistency] [seed]
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        double inconsistency = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        GainTuner tuner = new GainTuner(Main.blueFarRoutine(), Main.blueFarActions(), inconsistency, seed);
+        tuner.setGenerations(generations);
+        tuner.setRunsPerCandidate(runs);
+        long t0 = System.nanoTime();
+        PathingGains best = tuner.tune(PathingGains.DEFAULT);
+        System.out.printf("tuned in %.1fs%n", (System.nanoTime() - t0) / 1e9);
+        System.out.println("default: " + PathingGains.DEFAULT);
+        System.out.println("tuned:   " + best);
+    }
+}
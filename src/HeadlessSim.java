@@ -0,0 +1,237 @@
+import Developer.FieldPanel;
+import Developer.FlightRecorder;
+import Developer.FrameExporter;
+import Developer.Pose;
+import Developer.Robot;
+import Developer.Telemetry;
+
+import java.awt.Color;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Runs the Main routine with no JFrame, Telemetry window or FieldPanel.
+// Ticks as fast as the cpu allows, so a 30 sec auto finishes in a few ms.
+public class HeadlessSim {
+    public static final double DEFAULT_DT = 0.02;
+    public static final double DEFAULT_MAX_SIM_SEC = 120.0;
+
+    public static class Result {
+        public final Pose finalPose;        // robot pose when the run stopped
+        public final double elapsedSec;     // simulated seconds
+        public final double[] legDurations; // command -> arrival per leg, sec (-1 if never arrived)
+        public final double[] legErrors;    // settled center->target distance when each leg ends (NaN if it never ended)
+        public final boolean finished;      // false if maxSimSec ran out first
+        public final long ticks;
+        public final double localizationError; // estimate vs true position at the end, 0 when steering from truth
+
+        Result(Pose finalPose, double elapsedSec, double[] legDurations, double[] legErrors, boolean finished, long ticks,
+               double localizationError) {
+            this.finalPose = finalPose;
+            this.elapsedSec = elapsedSec;
+            this.legDurations = legDurations;
+            this.legErrors = legErrors;
+            this.finished = finished;
+            this.ticks = ticks;
+            this.localizationError = localizationError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("finished=%b sim=%.2fs ticks=%d final=(%.2f, %.2f, %.1fdeg) legs=%s",
+                    finished, elapsedSec, ticks, finalPose.x, finalPose.y, Math.toDegrees(finalPose.heading),
+                    Arrays.toString(legDurations));
+        }
+    }
+
+    // How to run: everything has a default, so set only what differs. Setters chain, e.g.
+    //   new HeadlessSim.Options().actions(Main.blueFarActions()).odometry(200, seed)
+    // Read when run() starts; one instance can be reused for runs one after another.
+    public static class Options {
+        private boolean[] actionPoses;         // as for Main.init, null = stop-and-go on every pose
+        private PathingGains gains = PathingGains.DEFAULT;
+        private double dt = DEFAULT_DT;
+        private double maxSimSec = DEFAULT_MAX_SIM_SEC;
+        private FlightRecorder recorder;       // every tick appended to its flight log
+        private FrameExporter frames;          // every frameEvery'th tick (and the last one) captured
+        private int frameEvery = 1;
+        private double odometryHz = 0.0;       // 0 = pathing reads the true pose
+        private long odometrySeed = 0L;
+
+        public Options actions(boolean[] actionPoses) { this.actionPoses = actionPoses; return this; }
+        public Options gains(PathingGains gains) { this.gains = gains; return this; }
+        public Options dt(double dt) { this.dt = dt; return this; }
+        public Options maxSimSec(double maxSimSec) { this.maxSimSec = maxSimSec; return this; }
+        public Options recorder(FlightRecorder recorder) { this.recorder = recorder; return this; }
+
+        public Options frames(FrameExporter frames, int frameEvery) {
+            this.frames = frames;
+            this.frameEvery = frameEvery;
+            return this;
+        }
+
+        // pathing steers from a PoseEstimator over simulated encoders + IMU seeded with seed. Off by
+        // default everywhere, so reference numbers don't move
+        public Options odometry(double rateHz, long seed) {
+            this.odometryHz = rateHz;
+            this.odometrySeed = seed;
+            return this;
+        }
+    }
+
+    // stop-and-go on every pose, default everything
+    public static Result run(Pose[] poseList) {
+        return run(poseList, new Robot(), new Options());
+    }
+
+    public static Result run(Pose[] poseList, Robot robot, Options options) {
+        boolean[] actionPoses = options.actionPoses;
+        FlightRecorder recorder = options.recorder;
+        FrameExporter frames = options.frames;
+        int frameEvery = options.frameEvery;
+        double maxSimSec = options.maxSimSec;
+        Telemetry telemetry = Telemetry.createHeadless();
+        OzPathing pathing = new OzPathing(robot, telemetry, options.gains);
+        Main main = new Main();
+        main.setDt(options.dt);
+        main.init(robot, pathing, null, telemetry, poseList, actionPoses);
+        if (options.odometryHz > 0) main.useOdometry(options.odometrySeed, options.odometryHz);
+        if (recorder != null) recorder.attach(robot, telemetry);
+
+        int legs = Math.max(0, poseList.length - 1);
+        double[] legStart = new double[legs];
+        double[] legDurations = new double[legs];
+        Arrays.fill(legDurations, -1.0);
+        double[] legErrors = new double[legs];
+        Arrays.fill(legErrors, Double.NaN);
+
+        int lastState = main.getState();
+        long ticks = 0;
+        while (!main.isFinished() && main.getSimTimeSec() < maxSimSec) {
+            double tickStart = main.getSimTimeSec();
+            // error before the tick, so it is the settled value once the pause ends and the next leg starts
+            double preError = lastState >= 1 && lastState <= legs ? centerError(robot, poseList[lastState]) : Double.NaN;
+            main.loop();
+            ticks++;
+            if (recorder != null) recorder.record(main.getSimTimeSec());
+            if (frames != null && ticks % frameEvery == 0) frames.capture();
+
+            // state s means we are driving leg s-1 (pose s-1 -> pose s)
+            int s = main.getState();
+            if (s != lastState) {
+                if (lastState >= 1 && lastState <= legs) legErrors[lastState - 1] = preError;
+                // a pose driven through never stops the pathing, the leg ends when the next one starts
+                if (lastState >= 1 && lastState <= legs && legDurations[lastState - 1] < 0) {
+                    legDurations[lastState - 1] = tickStart - legStart[lastState - 1];
+                }
+                if (s >= 1 && s <= legs) legStart[s - 1] = tickStart;
+                lastState = s;
+            }
+            if (s >= 1 && s <= legs && legDurations[s - 1] < 0 && !pathing.isBusy()) {
+                legDurations[s - 1] = main.getSimTimeSec() - legStart[s - 1];
+            }
+        }
+
+        if (frames != null && ticks % frameEvery != 0) frames.capture();
+
+        Pose finalPose = new Pose(robot.getX(), robot.getY(), robot.getHeading());
+        double locError = main.getEstimator() != null ? main.getEstimator().positionError() : 0.0;
+        return new Result(finalPose, main.getSimTimeSec(), legDurations, legErrors, main.isFinished(), ticks, locError);
+    }
+
+    // stop-and-go on every pose vs driving through everything that isn't an action pose
+    public static void compareChained(Pose[] poseList, boolean[] actionPoses) {
+        Result stopAndGo = run(poseList);
+        Result chained = run(poseList, new Robot(), new Options().actions(actionPoses));
+        System.out.println("pose             stop-and-go          chained");
+        for (int leg = 0; leg < stopAndGo.legDurations.length; leg++) {
+            System.out.printf("%d %-6s   %5.2fs  err %.2f    %5.2fs  err %.2f%n", leg + 1,
+                    actionPoses[leg + 1] ? "action" : "pass",
+                    stopAndGo.legDurations[leg], stopAndGo.legErrors[leg],
+                    chained.legDurations[leg], chained.legErrors[leg]);
+        }
+        System.out.printf("total            %5.2fs               %5.2fs  (%.0f%% faster)%n",
+                stopAndGo.elapsedSec, chained.elapsedSec, 100.0 * (1.0 - chained.elapsedSec / stopAndGo.elapsedSec));
+    }
+
+    // the chained routine steered from the true pose vs from the odometry estimate, over a few seeds
+    public static void compareOdometry(Pose[] poseList, boolean[] actionPoses, double odometryHz, int seeds) {
+        Result truth = run(poseList, new Robot(), new Options().actions(actionPoses));
+        System.out.printf("ground truth       sim=%.2fs  worst leg err %.2f%n", truth.elapsedSec, worst(truth.legErrors));
+        double worstLoc = 0.0;
+        long t0 = System.nanoTime();
+        for (long seed = 1; seed <= seeds; seed++) {
+            Result r = run(poseList, new Robot(), new Options().actions(actionPoses).odometry(odometryHz, seed));
+            worstLoc = Math.max(worstLoc, r.localizationError);
+            if (seed <= 5) {
+                System.out.printf("odometry seed %-3d sim=%.2fs  worst leg err %.2f  final estimate off by %.2f%n",
+                        seed, r.elapsedSec, worst(r.legErrors), r.localizationError);
+            }
+        }
+        System.out.printf("%d odometry runs at %.0f Hz in %.1f ms, worst final estimate error %.2f%n", seeds, odometryHz,
+                (System.nanoTime() - t0) / 1e6, worstLoc);
+    }
+
+    private static double worst(double[] errors) {
+        double w = 0.0;
+        for (double e : errors) w = Math.max(w, Double.isNaN(e) ? Double.POSITIVE_INFINITY : e);
+        return w;
+    }
+
+    // OzPathing steers the robot center onto the pose, Robot x/y is the corner
+    static double centerError(Robot robot, Pose target) {
+        double half = FieldPanel.ROBOT_SIZE_UNITS / 2.0;
+        return Math.hypot(target.x - (robot.getX() + half), target.y - (robot.getY() + half));
+    }
+
+    // one chained Blue far run as pictures: <dir>/bluefar_*.png or <dir>/bluefar.gif
+    public static void exportFrames(Path dir, FrameExporter.Format format, int frameEvery) {
+        Robot robot = new Robot();
+        FieldPanel panel = new FieldPanel(robot);
+        for (Pose p : Main.blueFarRoutine()) panel.markPose(p, Color.YELLOW);
+        long t0 = System.nanoTime();
+        Result result;
+        FrameExporter frames = new FrameExporter(panel, dir, "bluefar", format, 16,
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1), true, frameEvery * DEFAULT_DT);
+        try (frames) {
+            result = run(Main.blueFarRoutine(), robot, new Options().actions(Main.blueFarActions()).frames(frames, frameEvery));
+        }
+        System.out.printf("%d frames of a %.2fs run written to %s in %.0f ms%n", frames.getWritten(), result.elapsedSec,
+                dir, (System.nanoTime() - t0) / 1e6);
+    }
+
+    public static void main(String[] args) {
+        // HeadlessSim --odometry [hz] [seeds]
+        if (args.length > 0 && args[0].equals("--odometry")) {
+            compareOdometry(Main.blueFarRoutine(), Main.blueFarActions(),
+                    args.length > 1 ? Double.parseDouble(args[1]) : 50.0, args.length > 2 ? Integer.parseInt(args[2]) : 100);
+            return;
+        }
+        // HeadlessSim --frames <dir> [png|gif] [every]
+        if (args.length > 1 && args[0].equals("--frames")) {
+            FrameExporter.Format format = args.length > 2 && args[2].equals("gif") ? FrameExporter.Format.GIF
+                    : FrameExporter.Format.PNG;
+            exportFrames(Paths.get(args[1]), format, args.length > 3 ? Integer.parseInt(args[3]) : 5);
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Result last = null;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            last = run(Main.blueFarRoutine());
+        }
+        double wallMs = (System.nanoTime() - t0) / 1e6;
+        System.out.println(last);
+        System.out.printf("%d runs in %.1f ms (%.3f ms/run)%n", runs, wallMs, wallMs / runs);
+
+        compareChained(Main.blueFarRoutine(), Main.blueFarActions());
+
+        // HeadlessSim <runs> <dir> : also leaves a flight log of one run in <dir>/run.*
+        if (args.length > 1) {
+            try (FlightRecorder recorder = new FlightRecorder(Paths.get(args[1]), "run")) {
+                run(Main.blueFarRoutine(), new Robot(), new Options().recorder(recorder));
+                System.out.printf("recorded %d ticks to %s%n", recorder.getTicksRecorded(), args[1]);
+            }
+        }
+    }
+}
@@ -1,12 +1,19 @@
+import Developer.InputRecording;
+import Developer.LoopTiming;
+import Developer.MatchWorld;
 import Developer.Pose;
 import Developer.Renderer;
 import Developer.Robot;
+import Developer.SimClock;
 import Developer.Telemetry;
 import Developer.FieldPanel;
 import java.awt.Color;
 import java.awt.KeyEventDispatcher;
 import java.awt.KeyboardFocusManager;
 import java.awt.event.KeyEvent;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.IntSupplier;
 
 public class HumanControlled {
     private Robot decbot;
@@ -20,6 +27,24 @@ public class HumanControlled {
     private volatile boolean keyQ = false;
     private volatile boolean keyE = false;
 
+    // bits for the per-tick key snapshot that gets recorded / replayed
+    private static final int KEY_W = 1, KEY_A = 2, KEY_S = 4, KEY_D = 8, KEY_Q = 16, KEY_E = 32;
+
+    private static final Pose START_POSE = new Pose(5.0, 5.0, 0.0);
+    private static final double INCONSISTENCY = 0.05;
+
+    // physics/controller on the sim thread, painting separately. Keys are read and turned into motor
+    // powers every Main.CONTROL_DT, same as the autonomous controller, physics runs at PHYSICS_HZ
+    private static final double PHYSICS_HZ = 1000.0;
+    private static final double RENDER_HZ = 60.0;
+
+    private SimClock clock = new SimClock(1.0 / PHYSICS_HZ);
+    private int controlEvery = (int) Math.round(Main.CONTROL_DT * PHYSICS_HZ);
+    private int heldKeys = 0; // keys read at the last control tick
+    private final double[] commanded = new double[3]; // vx, vy, omega the held keys asked for
+    private InputRecording recording; // non-null while recording
+    private LoopTiming timing;        // the renderer's, null on replays
+
     // tuning
     private static final double MAX_LINEAR_SPEED = 24.0; // units/sec at full WASD
     private static final double MAX_ANGULAR_SPEED = 3.0; // rad/sec at full Q/E
@@ -30,20 +55,46 @@ public class HumanControlled {
 
     private static final double MOTOR_DEADBAND = 0.02;
 
+    // telemetry handles, registered once in start() so loop() publishes without garbage
+    private Telemetry.BooleanChannel wChannel, aChannel, sChannel, dChannel, qChannel, eChannel;
+    private Telemetry.DoubleChannel vxChannel, vyChannel, omegaChannel;
+    private Telemetry.DoubleChannel mFLChannel, mFRChannel, mBLChannel, mBRChannel;
+    private Telemetry.DoubleChannel xChannel, yChannel, headingChannel;
+
+    // HumanControlled                 -> drive with WASD/QE
+    // HumanControlled --record <file>  -> same, saves seed + keys + motor commands on exit
+    // HumanControlled --replay <file>  -> headless replay of a recording, checks every tick matches
     public static void main(String[] args) {
-        new HumanControlled().start();
+        if (args.length == 2 && args[0].equals("--replay")) {
+            System.exit(replay(InputRecording.load(Paths.get(args[1]))) ? 0 : 1);
+        }
+        Path recordTo = args.length == 2 && args[0].equals("--record") ? Paths.get(args[1]) : null;
+        new HumanControlled().start(System.nanoTime(), recordTo);
     }
 
-    private void start() {
-        decbot = new Robot();
+    private void start(long seed, Path recordTo) {
+        decbot = new Robot(seed);
         renderer = new Renderer(decbot);
 
         // start position
-        decbot.setPose(new Pose(5.0, 5.0, 0.0));
-        decbot.setInconsistency(0.05);
+        decbot.setPose(START_POSE);
+        decbot.setInconsistency(INCONSISTENCY);
+
+        registerTelemetry(Telemetry.getInstance());
+        timing = renderer.getTiming();
+        timing.attach(Telemetry.getInstance());
+
+        if (recordTo != null) {
+            recording = new InputRecording(seed, clock.getDt(), INCONSISTENCY, START_POSE, controlEvery);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                renderer.stopLoop();
+                recording.save(recordTo);
+                System.out.println("saved " + recording.getTicks() + " ticks to " + recordTo);
+            }));
+        }
 
         // mark a visual starting point
-        renderer.markPose(new Pose(5.0, 5.0, 0.0), Color.CYAN);
+        renderer.markPose(START_POSE, Color.CYAN);
 
         // register a global key dispatcher to capture WASDEQ presses/releases
         KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(createKeyDispatcher());
@@ -52,10 +103,29 @@ public class HumanControlled {
             renderer.initWindow();
             // request focus on the UI so key events are delivered (may depend on platform)
 
-            renderer.startLoop(this::loop, 20);
+            renderer.startSimulation(this::loop, PHYSICS_HZ, RENDER_HZ);
         });
     }
 
+    private void registerTelemetry(Telemetry telemetry) {
+        wChannel = telemetry.booleanChannel("Key W");
+        aChannel = telemetry.booleanChannel("Key A");
+        sChannel = telemetry.booleanChannel("Key S");
+        dChannel = telemetry.booleanChannel("Key D");
+        qChannel = telemetry.booleanChannel("Key Q");
+        eChannel = telemetry.booleanChannel("Key E");
+        vxChannel = telemetry.doubleChannel("vx_cmd");
+        vyChannel = telemetry.doubleChannel("vy_cmd");
+        omegaChannel = telemetry.doubleChannel("omega_cmd");
+        mFLChannel = telemetry.doubleChannel("mFL");
+        mFRChannel = telemetry.doubleChannel("mFR");
+        mBLChannel = telemetry.doubleChannel("mBL");
+        mBRChannel = telemetry.doubleChannel("mBR");
+        xChannel = telemetry.doubleChannel("Robot X");
+        yChannel = telemetry.doubleChannel("Robot Y");
+        headingChannel = telemetry.doubleChannel("Heading");
+    }
+
     private KeyEventDispatcher createKeyDispatcher() {
         return new KeyEventDispatcher() {
             @Override
@@ -83,12 +153,57 @@ public class HumanControlled {
     }
 
     private void loop() {
-        double dt = 0.02;
+        // snapshot the keys once per control tick so the whole period (and any replay of it) sees the same input
+        if (clock.getTick() % controlEvery == 0) {
+            heldKeys = (keyW ? KEY_W : 0) | (keyA ? KEY_A : 0) | (keyS ? KEY_S : 0)
+                    | (keyD ? KEY_D : 0) | (keyQ ? KEY_Q : 0) | (keyE ? KEY_E : 0);
+        }
+        step(heldKeys);
+    }
+
+    private void step(int keys) {
+        if (clock.getTick() % controlEvery == 0) applyKeys(decbot, keys, commanded);
+
+        if (recording != null) recording.add(keys, decbot);
+
+        // advance physics
+        long t0 = timing != null ? timing.start() : 0;
+        decbot.update(clock.getDt());
+        if (timing != null) timing.stop(LoopTiming.PHYSICS, t0);
+        clock.advance();
+
+        // telemetry for debugging
+        boolean w = (keys & KEY_W) != 0, a = (keys & KEY_A) != 0, s = (keys & KEY_S) != 0;
+        boolean d = (keys & KEY_D) != 0, q = (keys & KEY_Q) != 0, e = (keys & KEY_E) != 0;
+        double mFL = decbot.getMFL(), mFR = decbot.getMFR(), mBL = decbot.getMBL(), mBR = decbot.getMBR();
+        wChannel.set(w);
+        aChannel.set(a);
+        sChannel.set(s);
+        dChannel.set(d);
+        qChannel.set(q);
+        eChannel.set(e);
+        vxChannel.set(commanded[0]);
+        vyChannel.set(commanded[1]);
+        omegaChannel.set(commanded[2]);
+        mFLChannel.set(mFL);
+        mFRChannel.set(mFR);
+        mBLChannel.set(mBL);
+        mBRChannel.set(mBR);
+        xChannel.set(decbot.getX());
+        yChannel.set(decbot.getY());
+        headingChannel.set(decbot.getHeading());
+    }
+
+    // key mask -> motor powers, shared with keyController so a MatchWorld robot can be driven the same way.
+    // commanded (may be null) gets the vx, vy, omega the keys asked for, before motor normalizing / deadband
+    static void applyKeys(Robot robot, int keys, double[] commanded) {
+        boolean w = (keys & KEY_W) != 0, a = (keys & KEY_A) != 0, s = (keys & KEY_S) != 0;
+        boolean d = (keys & KEY_D) != 0, q = (keys & KEY_Q) != 0, e = (keys & KEY_E) != 0;
 
         // compute desired translation/rotation inputs from key booleans
-        double forward = (keyW ? 1.0 : 0.0) - (keyS ? 1.0 : 0.0);   // +X
-        double strafe  = (keyD ? 1.0 : 0.0) - (keyA ? 1.0 : 0.0);   // +Y (right)
-        double rotIn   = (keyQ ? 1.0 : 0.0) - (keyE ? 1.0 : 0.0);   // + = ccw, - = cw
+        double forward = (w ? 1.0 : 0.0) - (s ? 1.0 : 0.0);   // +X
+        double strafe  = (d ? 1.0 : 0.0) - (a ? 1.0 : 0.0);   // +Y (right)
+        double rotIn   = (q ? 1.0 : 0.0) - (e ? 1.0 : 0.0);   // + = ccw, - = cw
 
         // normalize so diagonal input isn't faster
         double mag = Math.abs(forward) + Math.abs(strafe);
@@ -101,20 +216,25 @@ public class HumanControlled {
         double vx = forward * MAX_LINEAR_SPEED; // forward
         double vy = strafe  * MAX_LINEAR_SPEED; // right
         double omega = rotIn * MAX_ANGULAR_SPEED;
+        if (commanded != null) {
+            commanded[0] = vx;
+            commanded[1] = vy;
+            commanded[2] = omega;
+        }
 
         // convert to motor powers using same pseudoinverse mapping used elsewhere:
         // mFL = (vx - vy)/M - omega/G
         // mFR = (vx + vy)/M + omega/G
         // mBL = (vx - vy)/M + omega/G
         // mBR = (vx + vy)/M - omega/G
-        double a = vx / M;
-        double b = vy / M;
-        double c = omega / G;
+        double ma = vx / M;
+        double mb = vy / M;
+        double mc = omega / G;
 
-        double mFL = a - b - c;
-        double mFR = a + b + c;
-        double mBL = a - b + c;
-        double mBR = a + b - c;
+        double mFL = ma - mb - mc;
+        double mFR = ma + mb + mc;
+        double mBL = ma - mb + mc;
+        double mBR = ma + mb - mc;
 
         // normalize if any > 1.0
         double max = Math.max(Math.max(Math.abs(mFL), Math.abs(mFR)),
@@ -133,30 +253,40 @@ public class HumanControlled {
         mBR = applyDeadband(mBR);
 
         // set motors
-        decbot.setMFL(mFL);
-        decbot.setMFR(mFR);
-        decbot.setMBL(mBL);
-        decbot.setMBR(mBR);
+        robot.setMFL(mFL);
+        robot.setMFR(mFR);
+        robot.setMBL(mBL);
+        robot.setMBR(mBR);
+    }
 
-        // advance physics
-        decbot.update(dt);
+    // drives robot from a key mask source (live keys, a script, another player) inside a MatchWorld
+    static MatchWorld.Controller keyController(Robot robot, IntSupplier keys) {
+        return simTimeSec -> applyKeys(robot, keys.getAsInt(), null);
+    }
 
-        // telemetry for debugging
-        Telemetry.getInstance().addLine("W A S D Q E",
-                String.format("W=%b A=%b S=%b D=%b Q=%b E=%b", keyW, keyA, keyS, keyD, keyQ, keyE));
-        Telemetry.getInstance().addLine("vx_cmd", vx);
-        Telemetry.getInstance().addLine("vy_cmd", vy);
-        Telemetry.getInstance().addLine("omega_cmd", omega);
-        Telemetry.getInstance().addLine("mFL", mFL);
-        Telemetry.getInstance().addLine("mFR", mFR);
-        Telemetry.getInstance().addLine("mBL", mBL);
-        Telemetry.getInstance().addLine("mBR", mBR);
-        Telemetry.getInstance().addLine("Robot X", decbot.getX());
-        Telemetry.getInstance().addLine("Robot Y", decbot.getY());
-        Telemetry.getInstance().addLine("Heading", decbot.getHeading());
+    // feeds recorded keys back in with no window at full speed, true if every tick reproduced exactly
+    public static boolean replay(InputRecording rec) {
+        HumanControlled hc = new HumanControlled();
+        hc.decbot = new Robot(rec.seed);
+        hc.decbot.setPose(rec.startPose);
+        hc.decbot.setInconsistency(rec.inconsistency);
+        hc.clock = new SimClock(rec.dt);
+        hc.controlEvery = rec.controlEvery;
+        hc.registerTelemetry(Telemetry.createHeadless());
+
+        for (int i = 0; i < rec.getTicks(); i++) {
+            hc.step(rec.getKeyMask(i));
+            if (!rec.motorsMatch(i, hc.decbot)) {
+                System.out.printf("replay diverged at tick %d (t=%.2fs)%n", i, i * rec.dt);
+                return false;
+            }
+        }
+        System.out.printf("replayed %d ticks, final pose (%.3f, %.3f, %.3f)%n",
+                rec.getTicks(), hc.decbot.getX(), hc.decbot.getY(), hc.decbot.getHeading());
+        return true;
     }
 
-    private double applyDeadband(double v) {
+    private static double applyDeadband(double v) {
         if (Math.abs(v) < MOTOR_DEADBAND) return 0.0;
         return v;
     }
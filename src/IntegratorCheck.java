@@ -0,0 +1,52 @@
+import Developer.Pose;
+import Developer.Robot;
+
+// Open-loop accuracy of Robot's integrators: the same motor script (drive + turn, strafe, reverse,
+// spin, coast) run at different dt, final pose compared against Euler at dt = 1e-5, which is as
+// close to the continuous model as we can get. No controller in the loop, so this is integration
+// error only.
+public class IntegratorCheck {
+    private static final double SCRIPT_SEC = 5.0;
+    private static final double SEGMENT_SEC = 1.0; // script changes every second, so every dt below lines up
+
+    // motor powers FL, FR, BL, BR per script segment
+    private static final double[][] SCRIPT = {
+            { 0.9, 1.0, 0.7, 0.8 },
+            { -0.6, 0.6, 0.6, -0.6 },
+            { -0.8, -0.5, -0.8, -0.5 },
+            { -0.4, 0.4, 0.4, -0.4 },
+            { 0.0, 0.0, 0.0, 0.0 },
+    };
+
+    public static Pose run(Robot.Integrator integrator, double dt) {
+        Robot robot = new Robot(1L);
+        robot.setIntegrator(integrator);
+        robot.setPose(new Pose(72, 72, 0));
+        long steps = Math.round(SCRIPT_SEC / dt);
+        long perSegment = Math.round(SEGMENT_SEC / dt);
+        for (long i = 0; i < steps; i++) {
+            double[] m = SCRIPT[(int) Math.min(SCRIPT.length - 1, i / perSegment)];
+            robot.setMFL(m[0]);
+            robot.setMFR(m[1]);
+            robot.setMBL(m[2]);
+            robot.setMBR(m[3]);
+            robot.update(dt);
+        }
+        return new Pose(robot.getX(), robot.getY(), robot.getHeading());
+    }
+
+    public static void main(String[] args) {
+        Pose truth = run(Robot.Integrator.EULER, 1e-5);
+        System.out.printf("reference (EULER dt=1e-5): (%.3f, %.3f, %.2fdeg)%n", truth.x, truth.y, Math.toDegrees(truth.heading));
+        System.out.println("integrator     dt      steps   pos err   heading err");
+        for (Robot.Integrator integrator : Robot.Integrator.values()) {
+            for (double dt : new double[] { 0.005, 0.02, 0.05, 0.1 }) {
+                Pose p = run(integrator, dt);
+                double dh = p.heading - truth.heading;
+                dh = Math.atan2(Math.sin(dh), Math.cos(dh));
+                System.out.printf("%-10s  %6.3f  %6d   %7.3f   %7.3fdeg%n", integrator, dt, Math.round(SCRIPT_SEC / dt),
+                        Math.hypot(p.x - truth.x, p.y - truth.y), Math.toDegrees(Math.abs(dh)));
+            }
+        }
+    }
+}
@@ -1,39 +1,123 @@
+import Developer.DistanceSensors;
+import Developer.FieldGeometry;
+import Developer.InputRecording;
+import Developer.LoopTiming;
 import Developer.Pose;
+import Developer.PoseEstimator;
 import Developer.Renderer;
 import Developer.Robot;
+import Developer.SimClock;
+import Developer.SimulatedOdometry;
 import Developer.Telemetry;
+import Developer.TelemetryStream;
 
 
 import java.awt.Color;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 public class Main{
     private Robot robot;
-    private Renderer renderer;
+    private Renderer renderer; // null when running headless
     private OzPathing pathing;
-    public double startTime;
+    private Telemetry telemetry;
+    private Telemetry.DoubleChannel timeChannel, robotXChannel, robotYChannel, headingChannel;
+    private Telemetry.DoubleChannel targetXChannel, targetYChannel, pauseRemainingChannel;
+    private Telemetry.BooleanChannel busyChannel, finishedChannel;
 
     private Pose[] poseList;
+    private boolean[] actionPoses; // poses we stop and pause on, the rest are driven through. null = stop on every pose
+    private int chainFrom = 0;     // pose the current followChain started from
 
-    // state machine
-    private int state = 0;
-    private static final long WAIT_MS = 500L; // pause length
-    private long PauseStartTime = 0L;
-    private boolean timerGoing = false;
+    // simulated time, advanced one tick per loop so pauses don't depend on the wall clock
+    private SimClock clock = new SimClock(CONTROL_DT);
+    private int controlEvery = 1;     // physics ticks per control() call
+    private InputRecording recording; // non-null while recording a run
+    private LoopTiming timing;        // optional, windowed runs take the renderer's
+    private PoseEstimator estimator;  // non-null when pathing steers from simulated odometry
+    private Telemetry.DoubleChannel locErrChannel;
+    private DistanceSensors sensors;  // non-null to cast distance sensors every tick
+    private Telemetry.DoubleChannel[] sensorChannels;
+    private boolean showRays = false;
+
+    // the routine, compiled once in init() and advanced on sim time every tick
+    private CommandScheduler auto;
+    private int state = 0;               // pose currently being driven to, poseList.length once finished
+    private static final double WAIT_SEC = 0.5; // pause length
+    private double pauseStartTime = -1;  // sim seconds, -1 when not pausing
+
+    // the controller's period everywhere: headless runs step physics at this too, windowed runs
+    // step physics at PHYSICS_HZ and call control() every CONTROL_DT of that
+    static final double CONTROL_DT = 0.02;
+    // windowed runs: physics/controller on the sim thread, painting separately
+    private static final double PHYSICS_HZ = 1000.0;
+    private static final double RENDER_HZ = 60.0;
+    private static final double ODOMETRY_HZ = 200.0;
+    private static final double SENSOR_RANGE = 120.0;
+
+    // Main                 -> normal windowed run
+    // Main --record <file>  -> windowed run, saves seed + motor commands on exit
+    // Main --replay <file>  -> headless replay of a recording, checks every tick matches
+    // Main --stream udp:host:port (or tcp:host:port) -> windowed run, also streams telemetry to a dashboard
+    // Main --rays          -> windowed run with four distance sensors drawn and on telemetry
+    // --record, --stream and --rays combine in any order; --replay goes alone
+    private static final String USAGE =
+            "usage: Main [--record <file>] [--stream udp|tcp:host:port] [--rays]   or   Main --replay <file>";
 
     public static void main(String[] args) {
-        new Main().start();
+        Path recordTo = null, replayFrom = null;
+        TelemetryStream stream = null;
+        boolean rays = false;
+        for (int i = 0; i < args.length; i++) {
+            String flag = args[i];
+            if (flag.equals("--rays")) {
+                rays = true;
+                continue;
+            }
+            if (!flag.equals("--record") && !flag.equals("--replay") && !flag.equals("--stream")) {
+                usageError("unknown argument " + flag);
+            }
+            if (i + 1 == args.length) usageError(flag + " needs a value");
+            String value = args[++i];
+            if (flag.equals("--record")) recordTo = Paths.get(value);
+            else if (flag.equals("--replay")) replayFrom = Paths.get(value);
+            else stream = TelemetryStream.parse(value);
+        }
+        if (replayFrom != null) {
+            if (args.length != 2) usageError("--replay can't be combined with other flags");
+            System.exit(replay(InputRecording.load(replayFrom)) ? 0 : 1);
+        }
+        Main main = new Main();
+        main.showRays = rays;
+        main.start(System.nanoTime(), recordTo, stream);
     }
 
-    public void start() {
-        startTime = System.currentTimeMillis();
-        robot = new Robot();
-        pathing = new OzPathing(robot);
-        renderer = new Renderer(robot);
+    private static void usageError(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
 
-        robot.setInconsistency(0.0);
+    public static Pose[] redFarRoutine() {
+        return new Pose[] {
+                savedPoses.RedFarStartPose,
+                savedPoses.RedFarShootPose,
+                savedPoses.RedSpikeAInsidePose,
+                savedPoses.RedSpikeAOutsidePose,
+                savedPoses.RedFarShootPose,
+                savedPoses.RedSpikeBInsidePose,
+                savedPoses.RedSpikeBOutsidePose,
+                savedPoses.RedFarShootPose,
+                savedPoses.RedFarParkPose
+        };
+    }
 
-        poseList = new Pose[] {
+    public static Pose[] blueFarRoutine() {
+        return new Pose[] {
                 savedPoses.BlueFarStartPose,      // 0
                 savedPoses.BlueFarShootPose,      // 1
                 savedPoses.BlueSpikeAInsidePose,  // 2
@@ -44,99 +128,242 @@ public class Main{
                 savedPoses.BlueFarShootPose,      // 7
                 savedPoses.BlueFarParkPose        // 8
         };
+    }
 
-        // place robot at the starting pose (index 0)
-        robot.setPose(poseList[0]);
+    // Shoot + park are where things happen. The spike poses only line up the intake sweep,
+    // so the robot drives through them (the reversal at the outside pose still slows it to ~0)
+    public static boolean[] blueFarActions() {
+        return new boolean[] { true, true, false, false, true, false, false, true, true };
+    }
+
+    public void start(long seed, Path recordTo) {
+        start(seed, recordTo, null);
+    }
+
+    public void start(long seed, Path recordTo, TelemetryStream stream) {
+        Robot robot = new Robot(seed);
+        Renderer renderer = new Renderer(robot);
 
+        robot.setInconsistency(0.0);
+        clock = new SimClock(1.0 / PHYSICS_HZ);
+        setControlPeriod(CONTROL_DT);
 
-        for (Pose p : poseList) {
-            renderer.markPose(p, Color.YELLOW);
+        init(robot, new OzPathing(robot), renderer, Telemetry.getInstance(), blueFarRoutine(), blueFarActions());
+        useOdometry(seed, ODOMETRY_HZ);
+        if (showRays) {
+            useSensors(DistanceSensors.fourSides(FieldGeometry.decodeField(), SENSOR_RANGE));
+            renderer.showSensors(sensors);
+        }
+        timing = renderer.getTiming();
+        timing.attach(telemetry);
+        if (stream != null) telemetry.addSink(stream); // after init so it sees every channel
+
+        if (recordTo != null) {
+            recording = new InputRecording(seed, clock.getDt(), 0.0, poseList[0], controlEvery, ODOMETRY_HZ);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                renderer.stopLoop();
+                recording.save(recordTo);
+                System.out.println("saved " + recording.getTicks() + " ticks to " + recordTo);
+            }));
         }
 
         renderer.runOnEDT(() -> {
             renderer.initWindow();
-            renderer.startLoop(this::loop, 20);
+            renderer.startSimulation(this::loop, PHYSICS_HZ, RENDER_HZ);
         });
     }
 
-    public void loop() {
-        double dt = 0.02;
-        double elapsedSec = (System.currentTimeMillis() - startTime) / 1000.0;
-        Telemetry.getInstance().addLine("Time", elapsedSec);
-        // state machine
-        switch (state) {
-            case 0:
-                if (poseList.length > 1) {
-                    pathing.follow(poseList[0], poseList[1]);
-                    Telemetry.getInstance().addLine("State", "Commanded first move 0 - 1");
-                    state = 1;
-                } else {
-                    state = 9;
-                }
-                break;
-
-            case 1: case 2: case 3: case 4: case 5: case 6: case 7: case 8:
-                if (!pathing.isBusy() && !timerGoing) {
-                    timerGoing = true;
-                    PauseStartTime = System.currentTimeMillis();
-                    Telemetry.getInstance().addLine("State", "Arrived at location " + state + " - starting pause");
-                }
-
-                // If timer is running and the wait has expired, mark and command next
-                if (timerGoing && (System.currentTimeMillis() - PauseStartTime >= WAIT_MS)) {
-                    timerGoing = false;
-                    PauseStartTime = 0L;
-
-                    if (state < poseList.length) {
-                        renderer.markPose(poseList[state], Color.GREEN);
-                    }
-
-                    // command next move if any
-                    int next = state + 1;
-                    if (next < poseList.length) {
-                        pathing.follow(poseList[state], poseList[next]);
-                        Telemetry.getInstance().addLine("State", "Commanded move " + state + " - " + next);
-                        state = next; // now monitor arrival at 'next' in subsequent ticks
-                    } else {
-
-                        state = 9;
-                    }
-                } else if (timerGoing) {
-                    long remaining = Math.max(0L, WAIT_MS - (System.currentTimeMillis() - PauseStartTime));
-                    Telemetry.getInstance().addLine("PauseRemainingMs", remaining);
-                }
-                break;
-
-            case 9:
-                Telemetry.getInstance().addLine("Am Finished", true);
-                // ensure motors are stopped
-                robot.setMFL(0.0);
-                robot.setMFR(0.0);
-                robot.setMBL(0.0);
-                robot.setMBR(0.0);
-                break;
-
-            default:
-                // safety: reset
-                renderer.clearMarkers();
-                state = 9;
-                break;
+    // wires up a routine without touching swing, so HeadlessSim can drive loop() directly
+    public void init(Robot robot, OzPathing pathing, Renderer renderer, Telemetry telemetry, Pose[] poseList) {
+        init(robot, pathing, renderer, telemetry, poseList, null);
+    }
+
+    public void init(Robot robot, OzPathing pathing, Renderer renderer, Telemetry telemetry, Pose[] poseList,
+                     boolean[] actionPoses) {
+        this.robot = robot;
+        this.pathing = pathing;
+        this.renderer = renderer;
+        this.telemetry = telemetry;
+        this.poseList = poseList;
+        this.actionPoses = actionPoses;
+        timeChannel = telemetry.doubleChannel("Time");
+        pauseRemainingChannel = telemetry.doubleChannel("PauseRemainingMs");
+        finishedChannel = telemetry.booleanChannel("Am Finished");
+        robotXChannel = telemetry.doubleChannel("Robot X");
+        robotYChannel = telemetry.doubleChannel("Robot Y");
+        headingChannel = telemetry.doubleChannel("Heading");
+        targetXChannel = telemetry.doubleChannel("TargetX");
+        targetYChannel = telemetry.doubleChannel("TargetY");
+        busyChannel = telemetry.booleanChannel("PathingBusy");
+        state = 0;
+        chainFrom = 0;
+        pauseStartTime = -1;
+        auto = new CommandScheduler(buildRoutine());
+
+        // place robot at the starting pose (index 0)
+        robot.setPose(poseList[0]);
+
+        if (renderer != null) {
+            for (Pose p : poseList) {
+                renderer.markPose(p, Color.YELLOW);
+            }
         }
+    }
+
+    // after init: pathing steers from encoders + IMU through an EKF instead of the true pose
+    public void useOdometry(long seed, double rateHz) {
+        estimator = new PoseEstimator(new SimulatedOdometry(robot, seed), rateHz);
+        estimator.reset(poseList[0]);
+        pathing.setPoseSource(estimator);
+        locErrChannel = telemetry.doubleChannel("Localization err");
+    }
 
-        // run the pathing controller and advance simulation (pathing.update BEFORE robot.update)
-        pathing.update();
-        robot.update(dt);
+    // after init: casts these every tick and puts the readings on telemetry
+    public void useSensors(DistanceSensors sensors) {
+        this.sensors = sensors;
+        sensorChannels = new Telemetry.DoubleChannel[sensors.size()];
+        for (int i = 0; i < sensorChannels.length; i++) sensorChannels[i] = telemetry.doubleChannel("Distance " + i);
+    }
+
+    public void loop() {
+        if (clock.getTick() % controlEvery == 0) control();
+        if (recording != null) recording.add(0, robot);
+        long t0 = timing != null ? timing.start() : 0;
+        robot.update(clock.getDt());
+        if (timing != null) timing.stop(LoopTiming.PHYSICS, t0);
+        if (estimator != null) {
+            estimator.update(clock.getDt());
+            locErrChannel.set(estimator.positionError());
+        }
+        if (sensors != null) {
+            double[] d = sensors.cast(robot);
+            for (int i = 0; i < sensorChannels.length; i++) sensorChannels[i].set(d[i]);
+        }
+        clock.advance();
 
         // common telemetry
-        Telemetry.getInstance().addLine("Robot X", robot.getX());
-        Telemetry.getInstance().addLine("Robot Y", robot.getY());
-        Telemetry.getInstance().addLine("Heading", robot.getHeading());
+        robotXChannel.set(robot.getX());
+        robotYChannel.set(robot.getY());
+        headingChannel.set(robot.getHeading());
         Pose tp = pathing.getTargetPose();
         if (tp != null) {
-            Telemetry.getInstance().addLine("TargetX", tp.x);
-            Telemetry.getInstance().addLine("TargetY", tp.y);
+            targetXChannel.set(tp.x);
+            targetYChannel.set(tp.y);
+        }
+        busyChannel.set(pathing.isBusy());
+        telemetry.publish(clock.getTimeSec());
+    }
+
+    // state machine + pathing only, sets the motors for this tick without stepping the robot.
+    // MatchWorld uses this directly, it integrates the robots and advances the shared clock itself
+    public void control() {
+        double simTimeSec = clock.getTimeSec();
+        timeChannel.set(simTimeSec);
+
+        if (!auto.isFinished()) {
+            // driving through the middle of a chain: keep state on the pose we're heading for. Only once
+            // a leg has started (state past chainFrom), before that nothing has been passed, not even pose 0
+            int driving = chainFrom + 1 + pathing.getChainIndex();
+            while (state > chainFrom && state < driving) {
+                if (renderer != null) renderer.markPose(poseList[state], Color.GREEN);
+                telemetry.addLine("State", "Passed location " + state);
+                state++;
+            }
+            auto.tick(simTimeSec);
+        }
+
+        if (auto.isFinished()) {
+            state = poseList.length;
+            finishedChannel.set(true);
+            // ensure motors are stopped
+            robot.setMFL(0.0);
+            robot.setMFR(0.0);
+            robot.setMBL(0.0);
+            robot.setMBR(0.0);
+        } else if (pauseStartTime >= 0) {
+            pauseRemainingChannel.set(Math.max(0.0, (WAIT_SEC - (simTimeSec - pauseStartTime)) * 1000.0));
+        }
+
+        // run the pathing controller (pathing.update BEFORE robot.update)
+        long t0 = timing != null ? timing.start() : 0;
+        pathing.update(getControlDt());
+        if (timing != null) timing.stop(LoopTiming.PATHING, t0);
+    }
+
+    // One leg per action pose: drive the chain up to it, pause, next. For the Blue far routine that's
+    // start -> shoot, shoot -> spike A -> shoot, shoot -> spike B -> shoot, shoot -> park.
+    private Command buildRoutine() {
+        List<Command> legs = new ArrayList<>();
+        for (int from = 0; from < poseList.length - 1; from = nextAction(from)) {
+            legs.add(leg(from, nextAction(from)));
+        }
+        return Command.sequence(legs.toArray(new Command[0]));
+    }
+
+    private Command leg(int from, int to) {
+        return Command.sequence(
+                Command.run(() -> {
+                    chainFrom = from;
+                    state = from + 1;
+                    telemetry.addLine("State", "Commanded move " + from + " - " + to);
+                }),
+                Command.follow(pathing, poseList[from], Arrays.copyOfRange(poseList, from + 1, to + 1)),
+                Command.run(() -> {
+                    pauseStartTime = clock.getTimeSec();
+                    telemetry.addLine("State", "Arrived at location " + to + " - starting pause");
+                }),
+                Command.waitSeconds(WAIT_SEC),
+                Command.run(() -> {
+                    pauseStartTime = -1;
+                    if (renderer != null) renderer.markPose(poseList[to], Color.GREEN);
+                }));
+    }
+
+    private int nextAction(int from) {
+        for (int i = from + 1; i < poseList.length - 1; i++) {
+            if (actionPoses == null || actionPoses[i]) return i;
         }
-        Telemetry.getInstance().addLine("PathingBusy", pathing.isBusy());
-        Telemetry.getInstance().removeStale();
+        return poseList.length - 1;
+    }
+
+    // runs a recording again with no window at full speed, true if every tick reproduced exactly
+    public static boolean replay(InputRecording rec) {
+        Robot robot = new Robot(rec.seed);
+        robot.setInconsistency(rec.inconsistency);
+        Telemetry telemetry = Telemetry.createHeadless();
+        Main main = new Main();
+        main.setClock(new SimClock(rec.dt));
+        main.controlEvery = rec.controlEvery;
+        main.init(robot, new OzPathing(robot, telemetry), null, telemetry, blueFarRoutine(), blueFarActions());
+        if (rec.odometryHz > 0) main.useOdometry(rec.seed, rec.odometryHz);
+
+        for (int i = 0; i < rec.getTicks(); i++) {
+            main.loop();
+            // robot.update doesn't touch the motors, so they are still this tick's commands
+            if (!rec.motorsMatch(i, robot)) {
+                System.out.printf("replay diverged at tick %d (t=%.2fs)%n", i, i * rec.dt);
+                return false;
+            }
+        }
+        System.out.printf("replayed %d ticks, final pose (%.3f, %.3f, %.3f)%n",
+                rec.getTicks(), robot.getX(), robot.getY(), robot.getHeading());
+        return true;
+    }
+
+    public void setDt(double dt) { this.clock = new SimClock(dt); }
+
+    // call control() every period seconds of sim time (rounded to whole physics ticks) instead of
+    // every tick. After setting the clock
+    public void setControlPeriod(double period) {
+        controlEvery = (int) Math.max(1, Math.round(period / clock.getDt()));
     }
-}
\ No newline at end of file
+    public void setTiming(LoopTiming timing) { this.timing = timing; }
+    public void setClock(SimClock clock) { this.clock = clock; }
+    public double getDt() { return clock.getDt(); }
+    public double getControlDt() { return clock.getDt() * controlEvery; }
+    public double getSimTimeSec() { return clock.getTimeSec(); }
+    public int getState() { return state; }
+    public boolean isFinished() { return auto.isFinished(); }
+    public OzPathing getPathing() { return pathing; }
+    public PoseEstimator getEstimator() { return estimator; }
+}
@@ -0,0 +1,113 @@
+import Developer.MatchWorld;
+import Developer.Pose;
+import Developer.Renderer;
+import Developer.Robot;
+import Developer.Telemetry;
+
+import java.awt.Color;
+
+// Four robots in one MatchWorld:
+//   0  blue far auto (Main + OzPathing)
+//   1  red far auto (Main + OzPathing)
+//   2  blue partner on HumanControlled-style keys from a script
+//   3  red partner on raw scripted motor powers
+// Match            -> windowed, all robots drawn
+// Match <n>        -> n headless 30 sec matches as fast as possible
+public class Match {
+    private static final double AUTO_SEC = 30.0;
+    private static final double HEADLESS_DT = Main.CONTROL_DT;
+    private static final double PHYSICS_HZ = 1000.0;
+    private static final double RENDER_HZ = 60.0;
+
+    private static final Pose BLUE_PARTNER_START = new Pose(20, 60, 0.0);
+    private static final Pose RED_PARTNER_START = new Pose(110, 60, Math.PI);
+
+    // key bits as in HumanControlled
+    private static final int KEY_W = 1, KEY_A = 2, KEY_S = 4, KEY_D = 8, KEY_Q = 16;
+
+    public static MatchWorld build(double dt, long seed, Telemetry blueTelemetry) {
+        MatchWorld world = new MatchWorld(dt);
+        world.setControlPeriod(Main.CONTROL_DT);
+
+        Robot blue = new Robot(seed);
+        Main blueAuto = new Main();
+        blueAuto.setClock(world.getClock());
+        blueAuto.setControlPeriod(Main.CONTROL_DT);
+        blueAuto.init(blue, new OzPathing(blue, blueTelemetry), null, blueTelemetry, Main.blueFarRoutine(), Main.blueFarActions());
+        world.addRobot(blue, t -> blueAuto.control());
+
+        Robot red = new Robot(seed + 1);
+        Telemetry redTelemetry = Telemetry.createHeadless();
+        Main redAuto = new Main();
+        redAuto.setClock(world.getClock());
+        redAuto.setControlPeriod(Main.CONTROL_DT);
+        redAuto.init(red, new OzPathing(red, redTelemetry), null, redTelemetry, Main.redFarRoutine(), Main.blueFarActions());
+        world.addRobot(red, t -> redAuto.control());
+
+        // partner drives across into the middle of the field, turns, and comes back
+        Robot bluePartner = new Robot(seed + 2);
+        bluePartner.setPose(BLUE_PARTNER_START);
+        world.addRobot(bluePartner, HumanControlled.keyController(bluePartner, () -> {
+            double t = world.getClock().getTimeSec();
+            if (t < 3.0) return KEY_W;
+            if (t < 4.0) return KEY_Q;
+            if (t < 6.0) return KEY_W | KEY_D;
+            if (t < 9.0) return KEY_S;
+            if (t < 10.0) return KEY_A;
+            return 0;
+        }));
+
+        // red partner charges at the middle with a slow spin, then backs off
+        Robot redPartner = new Robot(seed + 3);
+        redPartner.setPose(RED_PARTNER_START);
+        world.addRobot(redPartner, t -> {
+            double drive = t < 4.0 ? 0.8 : (t < 7.0 ? -0.5 : 0.0);
+            double spin = t < 4.0 ? 0.15 : 0.0;
+            redPartner.setMFL(drive - spin);
+            redPartner.setMFR(drive + spin);
+            redPartner.setMBL(drive + spin);
+            redPartner.setMBR(drive - spin);
+        });
+        return world;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            runHeadless(Integer.parseInt(args[0]));
+            return;
+        }
+        Telemetry telemetry = Telemetry.getInstance();
+        MatchWorld world = build(1.0 / PHYSICS_HZ, System.nanoTime(), telemetry);
+        Renderer renderer = new Renderer(world.getRobot(0));
+        renderer.showWorld(world);
+        for (Pose p : Main.blueFarRoutine()) renderer.markPose(p, Color.YELLOW);
+        for (Pose p : Main.redFarRoutine()) renderer.markPose(p, Color.PINK);
+        renderer.runOnEDT(() -> {
+            renderer.initWindow();
+            renderer.startSimulation(world::step, PHYSICS_HZ, RENDER_HZ);
+        });
+    }
+
+    private static void runHeadless(int matches) {
+        long steps = 0, robotContacts = 0, wallContacts = 0;
+        long t0 = System.nanoTime();
+        MatchWorld last = null;
+        for (int m = 0; m < matches; m++) {
+            MatchWorld world = build(HEADLESS_DT, m, Telemetry.createHeadless());
+            while (world.getClock().getTimeSec() < AUTO_SEC) {
+                world.step();
+                steps++;
+            }
+            robotContacts += world.getRobotContacts();
+            wallContacts += world.getWallContacts();
+            last = world;
+        }
+        double wallSec = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d matches, %d steps in %.2fs: %.0fx real time, %d robot contacts, %d wall contacts%n",
+                matches, steps, wallSec, matches * AUTO_SEC / wallSec, robotContacts, wallContacts);
+        for (int i = 0; i < last.getRobotCount(); i++) {
+            Robot r = last.getRobot(i);
+            System.out.printf("robot %d ends at (%.1f, %.1f, %.0fdeg)%n", i, r.getX(), r.getY(), Math.toDegrees(r.getHeading()));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import Developer.Pose;
+import Developer.Robot;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Batch mode for Robot.setInconsistency: runs thousands of independent headless routines
+// on every core and reports arrival error, routine time and failure rate per noise level.
+// Every run gets its own seed derived from (baseSeed, level, run) so any single run can be
+// reproduced with HeadlessSim.run(poseList, new Robot(seed), ...).
+public class MonteCarlo {
+    private final Pose[] poseList;
+    private final double[] inconsistencies;
+    private final int runsPerLevel;
+    private final long baseSeed;
+
+    private double dt = HeadlessSim.DEFAULT_DT;
+    private double maxSimSec = HeadlessSim.DEFAULT_MAX_SIM_SEC;
+    private double failTolerance = 2.0; // a leg ending further than this from its pose counts as a failure
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Robot.Integrator integrator = Robot.Integrator.EULER; // EXACT / ADAPTIVE hold up at much larger dt
+    private double odometryHz = 0.0; // > 0: pathing steers from simulated encoders + IMU instead of the true pose
+
+    public MonteCarlo(Pose[] poseList, double[] inconsistencies, int runsPerLevel, long baseSeed) {
+        this.poseList = poseList;
+        this.inconsistencies = inconsistencies;
+        this.runsPerLevel = runsPerLevel;
+        this.baseSeed = baseSeed;
+    }
+
+    public void setDt(double dt) { this.dt = dt; }
+    public void setMaxSimSec(double maxSimSec) { this.maxSimSec = maxSimSec; }
+    public void setFailTolerance(double failTolerance) { this.failTolerance = failTolerance; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public void setIntegrator(Robot.Integrator integrator) { this.integrator = integrator; }
+    public void setOdometryHz(double odometryHz) { this.odometryHz = odometryHz; }
+
+    public static long seedFor(long baseSeed, int level, int run) {
+        // splitmix style scramble so neighbouring runs don't get correlated streams
+        long z = baseSeed + (level * 0x100000001L + run) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static class LevelStats {
+        public final double inconsistency;
+        public final int runs;
+        public final double failureRate;
+        public final double[] totalTimePct;   // p50, p95, max of simulated routine time (finished runs)
+        public final double[][] legErrorPct;  // [leg][p50, p95, max] settled arrival error at poseList[leg + 1]
+        public final double wallMs;
+
+        LevelStats(double inconsistency, int runs, double failureRate, double[] totalTimePct,
+                   double[][] legErrorPct, double wallMs) {
+            this.inconsistency = inconsistency;
+            this.runs = runs;
+            this.failureRate = failureRate;
+            this.totalTimePct = totalTimePct;
+            this.legErrorPct = legErrorPct;
+            this.wallMs = wallMs;
+        }
+    }
+
+    public LevelStats[] run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            LevelStats[] out = new LevelStats[inconsistencies.length];
+            for (int level = 0; level < inconsistencies.length; level++) {
+                out[level] = runLevel(pool, level);
+            }
+            return out;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private LevelStats runLevel(ForkJoinPool pool, int level) {
+        double inconsistency = inconsistencies[level];
+        HeadlessSim.Result[] results = new HeadlessSim.Result[runsPerLevel];
+
+        long t0 = System.nanoTime();
+        try {
+            // results land in their own slot, so scheduling order can't change the report
+            pool.submit(() -> IntStream.range(0, runsPerLevel).parallel().forEach(i -> {
+                long seed = seedFor(baseSeed, level, i);
+                Robot robot = new Robot(seed);
+                robot.setInconsistency(inconsistency);
+                robot.setIntegrator(integrator);
+                HeadlessSim.Options options = new HeadlessSim.Options().dt(dt).maxSimSec(maxSimSec)
+                        .odometry(odometryHz, ~seed); // sensor noise on its own stream
+                results[i] = HeadlessSim.run(poseList, robot, options);
+
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Monte Carlo run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Monte Carlo run failed", e.getCause());
+        }
+        double wallMs = (System.nanoTime() - t0) / 1e6;
+
+        int legs = Math.max(0, poseList.length - 1);
+        double[] times = new double[runsPerLevel];
+        double[][] errors = new double[legs][runsPerLevel];
+        int finishedCount = 0;
+        int failures = 0;
+        for (int i = 0; i < runsPerLevel; i++) {
+            HeadlessSim.Result r = results[i];
+            boolean failed = !r.finished;
+            for (int leg = 0; leg < legs; leg++) {
+                double e = r.legErrors[leg];
+                errors[leg][i] = Double.isNaN(e) ? Double.POSITIVE_INFINITY : e;
+                if (!(e <= failTolerance)) failed = true;
+            }
+            if (r.finished) times[finishedCount++] = r.elapsedSec;
+            if (failed) failures++;
+        }
+
+        double[][] legErrorPct = new double[legs][];
+        for (int leg = 0; leg < legs; leg++) {
+            legErrorPct[leg] = percentiles(errors[leg], runsPerLevel);
+        }
+        return new LevelStats(inconsistency, runsPerLevel, failures / (double) runsPerLevel,
+                percentiles(times, finishedCount), legErrorPct, wallMs);
+    }
+
+    // p50, p95, max of the first n values (sorts in place)
+    private static double[] percentiles(double[] values, int n) {
+        if (n == 0) return new double[] { Double.NaN, Double.NaN, Double.NaN };
+        Arrays.sort(values, 0, n);
+        return new double[] { values[(n - 1) / 2], values[(int) Math.ceil(0.95 * n) - 1], values[n - 1] };
+    }
+
+    public void print(LevelStats[] stats) {
+        for (LevelStats s : stats) {
+            System.out.printf("inconsistency=%.3f runs=%d fail=%.2f%% time p50=%.2fs p95=%.2fs max=%.2fs  (%.0f runs/s)%n",
+                    s.inconsistency, s.runs, s.failureRate * 100.0,
+                    s.totalTimePct[0], s.totalTimePct[1], s.totalTimePct[2], s.runs / (s.wallMs / 1000.0));
+            for (int leg = 0; leg < s.legErrorPct.length; leg++) {
+                Pose p = poseList[leg + 1];
+                System.out.printf("    pose %d (%5.1f, %5.1f)  err p50=%.3f p95=%.3f max=%.3f%n",
+                        leg + 1, p.x, p.y, s.legErrorPct[leg][0], s.legErrorPct[leg][1], s.legErrorPct[leg][2]);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        double[] levels = { 0.0, 0.05, 0.1, 0.2, 0.3 };
+
+        MonteCarlo mc = new MonteCarlo(Main.blueFarRoutine(), levels, runs, seed);
+        if (args.length > 2) mc.setOdometryHz(Double.parseDouble(args[2])); // MonteCarlo <runs> <seed> <odometryHz>
+        mc.print(mc.run());
+    }
+}
@@ -0,0 +1,107 @@
+import Developer.Pose;
+
+// Time-parameterized, acceleration-limited (trapezoid) profile for one straight follow() leg.
+// Built once per (start, target) pair and then sampled in O(1) by OzPathing.update.
+public final class MotionProfile {
+    public final double startX, startY, startHeading;
+    public final double dirX, dirY;       // unit vector start -> target
+    public final double distance;
+    public final double headingDelta;     // shortest turn start -> target heading
+
+    private final double accel, decel;
+    private final double startSpeed, endSpeed, peakSpeed;
+    private final double tAccel, tCruise, tDecel;
+    private final double dAccel, dCruise;
+
+    private MotionProfile(Pose start, Pose target, double maxSpeed, double accel, double decel,
+                          double startSpeed, double endSpeed) {
+        this.startX = start.x;
+        this.startY = start.y;
+        this.startHeading = start.heading;
+        double dx = target.x - start.x;
+        double dy = target.y - start.y;
+        this.distance = Math.hypot(dx, dy);
+        this.dirX = distance > 1e-9 ? dx / distance : 0.0;
+        this.dirY = distance > 1e-9 ? dy / distance : 0.0;
+        double dh = target.heading - start.heading;
+        while (dh >= Math.PI) dh -= 2 * Math.PI;
+        while (dh < -Math.PI) dh += 2 * Math.PI;
+        this.headingDelta = dh;
+        this.accel = accel;
+        this.decel = decel;
+
+        // the exit speed has to be reachable from the entry speed inside this leg
+        double v0 = Math.min(Math.max(startSpeed, 0.0), maxSpeed);
+        double v1 = Math.min(Math.max(endSpeed, 0.0), maxSpeed);
+        v1 = Math.min(v1, Math.sqrt(v0 * v0 + 2 * accel * distance));
+        v1 = Math.max(v1, Math.sqrt(Math.max(0.0, v0 * v0 - 2 * decel * distance)));
+        this.startSpeed = v0;
+        this.endSpeed = v1;
+
+        // triangle if we can't reach maxSpeed before we have to start braking
+        double peakSq = (2 * distance * accel * decel + decel * v0 * v0 + accel * v1 * v1) / (accel + decel);
+        peakSpeed = Math.max(Math.max(v0, v1), Math.min(maxSpeed, Math.sqrt(peakSq)));
+        tAccel = (peakSpeed - v0) / accel;
+        tDecel = (peakSpeed - v1) / decel;
+        dAccel = (peakSpeed * peakSpeed - v0 * v0) / (2 * accel);
+        double dDecel = (peakSpeed * peakSpeed - v1 * v1) / (2 * decel);
+        dCruise = Math.max(0.0, distance - dAccel - dDecel);
+        tCruise = peakSpeed > 0 ? dCruise / peakSpeed : 0.0;
+    }
+
+    public static MotionProfile plan(Pose start, Pose target, double maxSpeed, double accel, double decel) {
+        return plan(start, target, maxSpeed, accel, decel, 0.0, 0.0);
+    }
+
+    // startSpeed / endSpeed != 0 for legs in the middle of a waypoint chain
+    public static MotionProfile plan(Pose start, Pose target, double maxSpeed, double accel, double decel,
+                                     double startSpeed, double endSpeed) {
+        return new MotionProfile(start, target, maxSpeed, accel, decel, startSpeed, endSpeed);
+    }
+
+    public double getStartSpeed() {
+        return startSpeed;
+    }
+
+    public double getEndSpeed() {
+        return endSpeed;
+    }
+
+    public double getDuration() {
+        return tAccel + tCruise + tDecel;
+    }
+
+    // distance along the leg at time t
+    public double position(double t) {
+        if (t <= 0) return 0.0;
+        if (t < tAccel) return startSpeed * t + 0.5 * accel * t * t;
+        if (t < tAccel + tCruise) return dAccel + peakSpeed * (t - tAccel);
+        double tau = t - tAccel - tCruise;
+        if (tau < tDecel) return dAccel + dCruise + peakSpeed * tau - 0.5 * decel * tau * tau;
+        return distance;
+    }
+
+    // speed along the leg at time t
+    public double velocity(double t) {
+        if (t <= 0) return startSpeed;
+        if (t < tAccel) return startSpeed + accel * t;
+        if (t < tAccel + tCruise) return peakSpeed;
+        double tau = t - tAccel - tCruise;
+        if (tau < tDecel) return peakSpeed - decel * tau;
+        return endSpeed;
+    }
+
+    // signed acceleration along the leg at time t
+    public double acceleration(double t) {
+        if (t <= 0) return 0.0;
+        if (t < tAccel) return accel;
+        if (t < tAccel + tCruise) return 0.0;
+        if (t < tAccel + tCruise + tDecel) return -decel;
+        return 0.0;
+    }
+
+    // fraction of the leg covered, used to blend heading in with the translation
+    public double progress(double t) {
+        return distance > 1e-9 ? position(t) / distance : 1.0;
+    }
+}
@@ -1,4 +1,6 @@
+import Developer.GridPlanner;
 import Developer.Pose;
+import Developer.PoseSource;
 import Developer.Robot;
 import Developer.Telemetry;
 
@@ -7,76 +9,287 @@ public class OzPathing {
     private Pose targetPose;
     private boolean busy = false;
     private final Robot robot;
+    private PoseSource pose; // what update() steers from, the robot itself unless setPoseSource says otherwise
+    private final Telemetry.DoubleChannel distChannel;
+    private final Telemetry.DoubleChannel headingErrChannel;
+    private final Telemetry.DoubleChannel omegaChannel;
+
+    // motion profile for the current leg, sampled by time since follow()
+    private MotionProfile profile;
+    private double legTime = 0.0;
+    private boolean useProfiles = true;
+    private double cmdVx, cmdVy, cmdOmega; // reactiveCommand output, fields so update() doesn't allocate
+    private final TrajectoryCache trajectories = TrajectoryCache.shared();
+
+    // waypoint chain: only the last pose is stopped on, the ones before it are blended through
+    private Pose[] chain;
+    private MotionProfile[] chainProfiles;
+    private int chainIndex = 0;
 
 
     private static final double ROBOT_SIZE_UNITS = 15.0; //idk how to use this from robot
 
     // Translation tuning
-    private static final double speedErrorRate = 2.0;      // speed per unit distance (units/sec per unit error)
     private static final double PosTol = 0.5;
     private static final double MaxSpeed = 36.0;
     private static final double MinSpeed = 1.0;
-    private static final double SlowRadius = 6.0;
 
-    // Heading (rotation) tuning
-    private static final double SpeedHeading = 2.2;
-    private static final double MaxRotSpeedR = 6.0;   // rad/sec cap
-
-    // Lateral correction (helps counter wheel inconsistencies / drift)
-    private static final double LateralSpeedCorrection = 0.35;         // vy correction per unit lateral error (robot-frame units)
+    // Profile limits (units/sec^2) - well inside what Robot's smoothing can follow
+    private static final double ProfileAccel = 120.0;
+    private static final double ProfileDecel = 60.0;
+    private static final double FeedforwardGain = 36.0 / 45.0; // M below is 36 but Robot really moves 45 units/sec at full power
+    private static final double AccelLag = 1.0 / 25.0;
+    private static final double DecelLag = 1.0 / 15.0;
+    private static final double ArriveSpeed = 3.0; // below this the robot coasts well inside PosTol
+    private static final double DEFAULT_DT = 0.02;
+    private static final double PassRadius = 4.0; // reactive mode: how close to a pass-through waypoint before moving on
+    // planned routes hug the inflated obstacles, so their corners are taken slower: at this speed the robot
+    // stays within PLAN_MARGIN of the planned line (checked with the whole footprint over random routes)
+    private static final double PlannedCornerSpeed = 12.0;
+    public static final double PLAN_MARGIN = 2.0; // for OccupancyGrid.inflateForRobot
+
+    // speedErrorRate, SlowRadius, heading / lateral correction, motor deadband
+    private PathingGains gains;
 
     // Robot constants (must match Robot.java)
     private static final double M = 36.0;  // MOTOR_TO_LINEAR
     private static final double G = 12.0;  // ROTATION_GAIN
 
-    // small deadband for tiny wheel commands
-    private static final double MinMotorAmt = 0.005;
-
     public OzPathing(Robot robot) {
-        this.robot = robot;
+        this(robot, Telemetry.getInstance());
+    }
+
+    public OzPathing(Robot robot, Telemetry telemetry) {
+        this(robot, telemetry, PathingGains.DEFAULT);
+    }
 
+    public OzPathing(Robot robot, Telemetry telemetry, PathingGains gains) {
+        this.robot = robot;
+        this.pose = robot;
+        this.gains = gains;
+        this.distChannel = telemetry.doubleChannel("DistToTarget");
+        this.headingErrChannel = telemetry.doubleChannel("HeadingErr");
+        this.omegaChannel = telemetry.doubleChannel("omega_cmd");
     }
 
     public void follow(Pose start, Pose target) {
         if (!busy) {
-            this.startPose = start;
-            this.targetPose = target;
-            this.busy = true;
+            followChain(start, new Pose[] { target });
         } else {
             // allow updating target while running
             this.targetPose = target;
+            this.chain = new Pose[] { target };
+            this.chainProfiles = null;
+            this.chainIndex = 0;
+            this.profile = null; // old profile ends somewhere else, finish reactively
+        }
+    }
+
+    // Drives start -> waypoints[0] -> ... -> waypoints[n-1] without stopping in between.
+    // Only the last waypoint gets the full stop / PosTol treatment, the others are corners
+    // taken at a speed that depends on how sharp the turn is.
+    public void followChain(Pose start, Pose[] waypoints) {
+        followChain(start, waypoints, MaxSpeed);
+    }
+
+    // maxCornerSpeed caps how fast the corners are taken, whatever the turn
+    public void followChain(Pose start, Pose[] waypoints, double maxCornerSpeed) {
+        start = chainStart(start);
+        this.startPose = start;
+        this.chain = waypoints;
+        this.chainIndex = 0;
+        this.targetPose = waypoints[0];
+        this.busy = true;
+        this.legTime = 0.0;
+        // repeated legs come straight out of the cache
+        this.chainProfiles = useProfiles && start != null ? planChain(start, waypoints, maxCornerSpeed) : null;
+        this.profile = chainProfiles != null ? chainProfiles[0] : null;
+    }
+
+    // Profiles and targets are robot centre positions. The first leg starts where the centre really is:
+    // a start pose further than PosTol from it (a corner-convention start pose like Robot.setPose takes,
+    // or a robot that got pushed) is replaced by the centre. Closer than that (arriving at the last
+    // target leaves it there) the start is kept as given, so repeated legs still hit the cache
+    private Pose chainStart(Pose start) {
+        double centerX = pose.getX() + ROBOT_SIZE_UNITS/2;
+        double centerY = pose.getY() + ROBOT_SIZE_UNITS/2;
+        if (start != null && Math.hypot(start.x - centerX, start.y - centerY) <= PosTol) return start;
+        return new Pose(centerX, centerY, pose.getHeading());
+    }
+
+    private MotionProfile[] planChain(Pose start, Pose[] waypoints, double maxCornerSpeed) {
+        int n = waypoints.length;
+        // speed allowed at each corner: full speed straight through, zero for a reversal
+        double[] corner = new double[n + 1];
+        for (int i = 1; i < n; i++) {
+            Pose a = i == 1 ? start : waypoints[i - 2];
+            Pose b = waypoints[i - 1];
+            Pose c = waypoints[i];
+            double inX = b.x - a.x, inY = b.y - a.y;
+            double outX = c.x - b.x, outY = c.y - b.y;
+            double lens = Math.hypot(inX, inY) * Math.hypot(outX, outY);
+            double cosTurn = lens > 1e-9 ? (inX * outX + inY * outY) / lens : 0.0;
+            corner[i] = Math.min(maxCornerSpeed, MaxSpeed * Math.max(0.0, cosTurn));
+        }
+        // backward then forward pass so every leg can actually brake / speed up to its neighbours
+        for (int i = n - 1; i >= 1; i--) {
+            corner[i] = Math.min(corner[i], Math.sqrt(corner[i + 1] * corner[i + 1] + 2 * ProfileDecel * legLength(start, waypoints, i)));
+        }
+        for (int i = 1; i < n; i++) {
+            corner[i] = Math.min(corner[i], Math.sqrt(corner[i - 1] * corner[i - 1] + 2 * ProfileAccel * legLength(start, waypoints, i - 1)));
         }
+
+        MotionProfile[] profiles = new MotionProfile[n];
+        for (int i = 0; i < n; i++) {
+            Pose from = i == 0 ? start : waypoints[i - 1];
+            profiles[i] = trajectories.get(from, waypoints[i], MaxSpeed, ProfileAccel, ProfileDecel, corner[i], corner[i + 1]);
+        }
+        return profiles;
+    }
+
+    // length of leg i (into waypoints[i])
+    private static double legLength(Pose start, Pose[] waypoints, int i) {
+        Pose from = i == 0 ? start : waypoints[i - 1];
+        return Math.hypot(waypoints[i].x - from.x, waypoints[i].y - from.y);
+    }
+
+    // plans around obstacles on the planner's grid and follows the result as a chain, false if the target
+    // can't be reached. Build the grid with inflateForRobot(ROBOT_SIZE_UNITS, OzPathing.PLAN_MARGIN)
+    public boolean followPlanned(GridPlanner planner, Pose start, Pose target) {
+        Pose[] waypoints = planner.planPoses(start, target);
+        if (waypoints == null) return false;
+        followChain(start, waypoints, PlannedCornerSpeed);
+        return true;
+    }
+
+    // index into the waypoints passed to followChain of the pose currently being driven to
+    public int getChainIndex() {
+        return chainIndex;
+    }
+
+    public void setGains(PathingGains gains) {
+        this.gains = gains;
+    }
+
+    public PathingGains getGains() {
+        return gains;
+    }
+
+    // false = the original purely reactive controller
+    public void setUseProfiles(boolean useProfiles) {
+        this.useProfiles = useProfiles;
     }
 
 
+    // e.g. a PoseEstimator, so the controller only knows what the encoders and IMU say.
+    // Motor commands still go to the robot.
+    public void setPoseSource(PoseSource pose) {
+        this.pose = pose;
+    }
+
+    public PoseSource getPoseSource() {
+        return pose;
+    }
+
     public Pose getTargetPose() {
         return targetPose;
     }
 
-    public void update() {  //actualy moves robot
+    public void update() {
+        update(DEFAULT_DT);
+    }
+
+    public void update(double dt) {  //actualy moves robot
         if (!busy || targetPose == null) {
             zeroMotors();
             return;
         }
 
         // compute robot center in world coordinates
-        double robotCenterX = robot.getX() + ROBOT_SIZE_UNITS/2;
-        double robotCenterY = robot.getY() + ROBOT_SIZE_UNITS/2;
+        double robotCenterX = pose.getX() + ROBOT_SIZE_UNITS/2;
+        double robotCenterY = pose.getY() + ROBOT_SIZE_UNITS/2;
+
+        // move on to the next leg of a chain: on the profile clock, or when close enough if reactive
+        while (chainIndex < chain.length - 1) {
+            if (profile != null && legTime >= profile.getDuration()) {
+                legTime -= profile.getDuration();
+            } else if (profile == null && Math.hypot(targetPose.x - robotCenterX, targetPose.y - robotCenterY) <= PassRadius) {
+                legTime = 0.0;
+            } else {
+                break;
+            }
+            chainIndex++;
+            startPose = targetPose;
+            targetPose = chain[chainIndex];
+            profile = chainProfiles != null ? chainProfiles[chainIndex] : null;
+        }
+
         double dx = targetPose.x - robotCenterX; // distance from target
         double dy = targetPose.y - robotCenterY;
         double dist = Math.hypot(dx, dy);
 
-        if (dist <= PosTol) { // stop command
+        // while the profile is still running we may pass through tolerance at speed, only stop once slow
+        boolean settled = profile == null || legTime >= profile.getDuration()
+                || Math.hypot(pose.getVX(), pose.getVY()) < ArriveSpeed;
+        if (chainIndex == chain.length - 1 && dist <= PosTol && settled) { // stop command
             busy = false;
             zeroMotors();
             return;
         }
 
-        double heading = robot.getHeading();
+        double heading = pose.getHeading();
         double cos = Math.cos(heading);
         double sin = Math.sin(heading);
 
 
+        double headingErr = normalizeAngle(targetPose.heading - heading);
+        double vx, vy, omega;
+
+        if (profile != null && legTime < profile.getDuration()) {
+            // feedforward from the profile + the same proportional pull, onto where we should be now
+            double s = profile.position(legTime);
+            double v = profile.velocity(legTime);
+            double refX = profile.startX + profile.dirX * s;
+            double refY = profile.startY + profile.dirY * s;
+            // Robot's velocity lags its command (first order, ~1/25 s speeding up, ~1/15 s slowing down),
+            // so lead the feedforward by that lag
+            double acc = profile.acceleration(legTime);
+            double ffSpeed = (v + acc * (acc < 0 ? DecelLag : AccelLag)) * FeedforwardGain;
+            double fx = profile.dirX * ffSpeed + gains.speedErrorRate * (refX - robotCenterX);
+            double fy = profile.dirY * ffSpeed + gains.speedErrorRate * (refY - robotCenterY);
+            double fMag = Math.hypot(fx, fy);
+            if (fMag > MaxSpeed) {
+                fx *= MaxSpeed / fMag;
+                fy *= MaxSpeed / fMag;
+            }
+            vx = fx * cos + fy * sin;
+            vy = -fx * sin + fy * cos;
+
+            // heading blends in with distance covered, plus the turn rate that implies
+            double headingRef = profile.startHeading + profile.headingDelta * profile.progress(legTime);
+            omega = gains.speedHeading * normalizeAngle(headingRef - heading);
+            if (profile.distance > 1e-9) omega += profile.headingDelta * v / profile.distance;
+        } else {
+            reactiveCommand(dx, dy, dist, cos, sin, headingErr);
+            vx = cmdVx;
+            vy = cmdVy;
+            omega = cmdOmega;
+        }
+        legTime += dt;
+
+        // clamp angular speed
+        if (omega > gains.maxRotSpeedR) omega = gains.maxRotSpeedR;
+        if (omega < -gains.maxRotSpeedR) omega = -gains.maxRotSpeedR;
+
+        applyCommand(vx, vy, omega);
+
+        distChannel.set(dist); // distance of hypotonues
+        headingErrChannel.set(headingErr);
+        omegaChannel.set(omega);
+    }
+
+    // original distance-proportional controller, used once the profile has run out
+    private void reactiveCommand(double dx, double dy, double dist, double cos, double sin, double headingErr) {
         double relX = dx * cos + dy * sin;
         double relY = -dx * sin + dy * cos;
 
@@ -88,13 +301,13 @@ public class OzPathing {
         }
 
         // desired translation speed magnitude (distance-proportional)
-        double speedCmd = speedErrorRate * dist;
+        double speedCmd = gains.speedErrorRate * dist;
         speedCmd = Math.min(speedCmd, MaxSpeed);
 
         // When inside slowdown radius, scale but keep a minimum
-        if (dist < SlowRadius) {
-            double frac = Math.max(0.25, dist / SlowRadius); // floor frac to avoid collapse
-            speedCmd = Math.max(MinSpeed, speedErrorRate * dist * frac);
+        if (dist < gains.slowRadius) {
+            double frac = Math.max(0.25, dist / gains.slowRadius); // floor frac to avoid collapse
+            speedCmd = Math.max(MinSpeed, gains.speedErrorRate * dist * frac);
             speedCmd = Math.min(speedCmd, MaxSpeed);
         }
 
@@ -103,23 +316,24 @@ public class OzPathing {
         double vy = speedCmd * uy; // right
 
         // later amt robot has strayed off line
-        double lateralCorrection = LateralSpeedCorrection * relY;
+        double lateralCorrection = gains.lateralSpeedCorrection * relY;
         vy += lateralCorrection;
 
         // heading control: rotate toward final heading while moving
         //not going to like this was ai
-        double headingErr = normalizeAngle(targetPose.heading - heading);
-        double omega = SpeedHeading * headingErr;
+        double omega = gains.speedHeading * headingErr;
 
         // moderate rotation while translating faster (don't let rotation dominate translation)
         double transMag = Math.hypot(vx, vy);
         double transScale = Math.min(1.0, transMag / MaxSpeed);
         omega *= (1.0 - 0.3 * transScale);
 
-        // clamp angular speed
-        if (omega > MaxRotSpeedR) omega = MaxRotSpeedR;
-        if (omega < -MaxRotSpeedR) omega = -MaxRotSpeedR;
+        cmdVx = vx;
+        cmdVy = vy;
+        cmdOmega = omega;
+    }
 
+    private void applyCommand(double vx, double vy, double omega) {
         // Convert vx, vy, omega (robot-frame) to motor powers using pseudoinverse (minimum-norm)
         // mFL = (vx - vy)/M - omega/G
         // mFR = (vx + vy)/M + omega/G
@@ -155,14 +369,10 @@ public class OzPathing {
         robot.setMFR(mFR);
         robot.setMBL(mBL);
         robot.setMBR(mBR);
-
-        Telemetry.getInstance().addLine("DistToTarget", dist); // distance of hypotonues
-        Telemetry.getInstance().addLine("HeadingErr", headingErr);
-        Telemetry.getInstance().addLine("omega_cmd", omega);
     }
 
     private double MinCheck(double v) {
-        if (Math.abs(v) < MinMotorAmt) return 0.0;
+        if (Math.abs(v) < gains.minMotorAmt) return 0.0;
         return v;
     }
 
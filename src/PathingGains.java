@@ -0,0 +1,46 @@
+// The hand-tuned OzPathing constants as one immutable value, so they can be swapped at runtime
+// and searched over by GainTuner. DEFAULT is exactly what OzPathing used to hard code.
+public final class PathingGains {
+    public static final PathingGains DEFAULT = new PathingGains(2.0, 6.0, 2.2, 6.0, 0.35, 0.005);
+
+    // names + search bounds in toArray() order
+    public static final String[] NAMES = {
+            "speedErrorRate", "SlowRadius", "SpeedHeading", "MaxRotSpeedR", "LateralSpeedCorrection", "MinMotorAmt"
+    };
+    public static final double[] LOWER = { 0.5, 1.0, 0.5, 1.0, 0.0, 0.0 };
+    public static final double[] UPPER = { 8.0, 20.0, 8.0, 12.0, 2.0, 0.05 };
+
+    public final double speedErrorRate;          // speed per unit distance (units/sec per unit error)
+    public final double slowRadius;              // start easing off inside this distance
+    public final double speedHeading;            // rad/sec per rad of heading error
+    public final double maxRotSpeedR;            // rad/sec cap
+    public final double lateralSpeedCorrection;  // vy correction per unit lateral error (robot-frame units)
+    public final double minMotorAmt;             // deadband for tiny wheel commands
+
+    public PathingGains(double speedErrorRate, double slowRadius, double speedHeading, double maxRotSpeedR,
+                        double lateralSpeedCorrection, double minMotorAmt) {
+        this.speedErrorRate = speedErrorRate;
+        this.slowRadius = slowRadius;
+        this.speedHeading = speedHeading;
+        this.maxRotSpeedR = maxRotSpeedR;
+        this.lateralSpeedCorrection = lateralSpeedCorrection;
+        this.minMotorAmt = minMotorAmt;
+    }
+
+    public double[] toArray() {
+        return new double[] { speedErrorRate, slowRadius, speedHeading, maxRotSpeedR, lateralSpeedCorrection, minMotorAmt };
+    }
+
+    // values outside LOWER / UPPER are clamped
+    public static PathingGains fromArray(double[] v) {
+        double[] c = new double[NAMES.length];
+        for (int i = 0; i < c.length; i++) c[i] = Math.max(LOWER[i], Math.min(UPPER[i], v[i]));
+        return new PathingGains(c[0], c[1], c[2], c[3], c[4], c[5]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("new PathingGains(%.4f, %.4f, %.4f, %.4f, %.4f, %.5f)",
+                speedErrorRate, slowRadius, speedHeading, maxRotSpeedR, lateralSpeedCorrection, minMotorAmt);
+    }
+}
@@ -0,0 +1,275 @@
+import Developer.DistanceSensors;
+import Developer.FieldGeometry;
+import Developer.FieldPanel;
+import Developer.GridPlanner;
+import Developer.MatchWorld;
+import Developer.MicroBench;
+import Developer.OccupancyGrid;
+import Developer.Pose;
+import Developer.PoseBuffer;
+import Developer.PoseEstimator;
+import Developer.PoseLibrary;
+import Developer.Robot;
+import Developer.RobotFleet;
+import Developer.SimulatedOdometry;
+import Developer.Telemetry;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+// Baseline numbers for the simulator hot paths. Run headless:
+//   java -Djava.awt.headless=true -cp out SimBenchmarks [filter]
+// B/op is bytes allocated per call, so anything above 0 is garbage the loop makes every tick.
+public class SimBenchmarks {
+    private static final int[] TELEMETRY_LINES = { 10, 100, 1000 };
+    private static final int[] MARKER_COUNTS = { 0, 100, 1000 };
+    private static final int[] FLEET_SIZES = { 1_000, 100_000 };
+
+    public static void main(String[] args) {
+        MicroBench bench = new MicroBench();
+        // any part of a benchmark name as printed, e.g. GridPlanner, Telemetry.addLine, .cast
+        if (args.length > 0) bench.setFilter(args[0]);
+        MicroBench.printHeader();
+
+        // a group's setup only runs if one of its benchmarks will
+        if (wants(bench, "Robot.update")) robotUpdate(bench);
+        if (wants(bench, "RobotFleet.update")) fleetUpdate(bench);
+        if (wants(bench, "OzPathing.update")) pathingUpdate(bench);
+        if (wants(bench, "PoseEstimator.update")) poseEstimator(bench);
+        if (wants(bench, "GridPlanner.plan")) gridPlanner(bench);
+        if (wants(bench, "PoseLibrary.nearest")) poseLibrary(bench);
+        if (wants(bench, "PoseBuffer.append", "PoseBuffer.mirror", "PoseBuffer.transform")) poseBuffer(bench);
+        if (wants(bench, "FieldGeometry.raycast", "DistanceSensors.cast")) raycast(bench);
+        if (wants(bench, "MatchWorld.resolveCollisions")) matchCollisions(bench);
+        if (wants(bench, "Telemetry.addLine", "Telemetry.DoubleChannel.set", "Telemetry.render")) telemetry(bench);
+        if (wants(bench, "FieldPanel.paint")) fieldPanelPaint(bench);
+        if (wants(bench, "Main.loop")) mainLoop(bench);
+    }
+
+    private static boolean wants(MicroBench bench, String... names) {
+        for (String name : names) {
+            if (bench.matches(name)) return true;
+        }
+        return false;
+    }
+
+    private static void robotUpdate(MicroBench bench) {
+        for (double inconsistency : new double[] { 0.0, 0.05 }) {
+            Robot robot = new Robot(1L);
+            robot.setInconsistency(inconsistency);
+            robot.setMFL(0.8);
+            robot.setMFR(0.6);
+            robot.setMBL(0.7);
+            robot.setMBR(0.9);
+            bench.run("Robot.update", "noise=" + inconsistency, () -> {
+                robot.update(0.02);
+                return robot.getX();
+            });
+        }
+    }
+
+    private static void fleetUpdate(MicroBench bench) {
+        for (int n : FLEET_SIZES) {
+            RobotFleet fleet = new RobotFleet(n, 1L);
+            for (int i = 0; i < n; i++) fleet.setMotors(i, 0.8, 0.6, 0.7, 0.9);
+            bench.run("RobotFleet.update", "robots=" + n, () -> {
+                fleet.update(0.02);
+                return fleet.getX(0);
+            });
+        }
+    }
+
+    private static void pathingUpdate(MicroBench bench) {
+        Robot robot = new Robot(1L);
+        robot.setPose(savedPoses.BlueFarStartPose);
+        OzPathing pathing = new OzPathing(robot, Telemetry.createHeadless());
+        // target far enough away that the controller never reports arrival
+        pathing.follow(savedPoses.BlueFarStartPose, savedPoses.BlueGoalStartPose);
+        bench.run("OzPathing.update", "", () -> {
+            pathing.update();
+            return robot.getMFL();
+        });
+    }
+
+    // sensors sampled + one EKF predict / IMU correct per call (rate = tick rate)
+    private static void poseEstimator(MicroBench bench) {
+        Robot robot = new Robot(1L);
+        robot.setMFL(0.8);
+        robot.setMFR(0.6);
+        robot.setMBL(0.7);
+        robot.setMBR(0.9);
+        PoseEstimator estimator = new PoseEstimator(new SimulatedOdometry(robot, 1L), 1000.0);
+        bench.run("PoseEstimator.update", "1 kHz", () -> {
+            robot.update(0.001);
+            estimator.update(0.001);
+            return estimator.getX();
+        });
+    }
+
+    private static void gridPlanner(MicroBench bench) {
+        OccupancyGrid field = OccupancyGrid.decodeField(1.0);
+        // same field with a wall across the middle and a gap at the far end, so A* has to search
+        OccupancyGrid walled = OccupancyGrid.decodeField(1.0);
+        walled.addRect(0, 70, 110, 74);
+        OccupancyGrid[] grids = { field.inflateForRobot(FieldPanel.ROBOT_SIZE_UNITS, OzPathing.PLAN_MARGIN),
+                walled.inflateForRobot(FieldPanel.ROBOT_SIZE_UNITS, OzPathing.PLAN_MARGIN) };
+        String[] names = { "decode", "wall" };
+        for (int i = 0; i < grids.length; i++) {
+            GridPlanner planner = new GridPlanner(grids[i]);
+            Pose from = savedPoses.BlueFarStartPose;
+            Pose to = savedPoses.BlueGoalStartPose;
+            bench.run("GridPlanner.plan", names[i], () -> planner.plan(from.x, from.y, to.x, to.y));
+        }
+    }
+
+    private static void poseLibrary(MicroBench bench) {
+        PoseLibrary poses = PoseLibrary.shared();
+        int shoot = poses.tagMask("shoot");
+        double[] probe = { 17.3, 60.1 };
+        bench.run("PoseLibrary.nearest", "all", () -> {
+            probe[0] = (probe[0] + 7.7) % 144.0;
+            probe[1] = (probe[1] + 13.1) % 144.0;
+            return poses.nearest(probe[0], probe[1]);
+        });
+        bench.run("PoseLibrary.nearest", "shoot", () -> {
+            probe[0] = (probe[0] + 7.7) % 144.0;
+            probe[1] = (probe[1] + 13.1) % 144.0;
+            return poses.nearest(probe[0], probe[1], shoot);
+        });
+    }
+
+    // a 1M pose trace, buffer reused so steady state allocates nothing
+    private static void poseBuffer(MicroBench bench) {
+        int n = 1_000_000;
+        PoseBuffer trace = new PoseBuffer(n);
+        bench.run("PoseBuffer.append", "poses=1M", () -> {
+            trace.clear();
+            for (int i = 0; i < n; i++) trace.append(i * 1e-4, 72.0, i * 1e-6);
+            return trace.x(n - 1);
+        });
+        bench.run("PoseBuffer.mirror", "poses=1M", () -> {
+            trace.mirror();
+            return trace.heading(n / 2);
+        });
+        bench.run("PoseBuffer.transform", "poses=1M", () -> {
+            trace.transform(0.5, -0.5, 0.01);
+            return trace.y(n / 2);
+        });
+    }
+
+    // a batch of 1024 random rays (divide ns/op by 1024 for one ray), and four sensors on a moving robot
+    private static void raycast(MicroBench bench) {
+        FieldGeometry field = FieldGeometry.decodeField();
+        int n = 1024;
+        double[] rays = new double[n * 4];
+        double[] out = new double[n];
+        SplittableRandom rng = new SplittableRandom(1);
+        for (int i = 0; i < n; i++) {
+            double a = rng.nextDouble(2 * Math.PI);
+            rays[i * 4] = rng.nextDouble(8, 136);
+            rays[i * 4 + 1] = rng.nextDouble(8, 136);
+            rays[i * 4 + 2] = Math.cos(a);
+            rays[i * 4 + 3] = Math.sin(a);
+        }
+        bench.run("FieldGeometry.raycast", "rays=1024", () -> {
+            field.raycast(rays, n, 200.0, out);
+            return out[n - 1];
+        });
+
+        Robot robot = new Robot(1L);
+        robot.setPose(savedPoses.BlueFarStartPose);
+        DistanceSensors sensors = DistanceSensors.fourSides(field, 120.0);
+        double[] heading = { 0.0 };
+        bench.run("DistanceSensors.cast", "sensors=4", () -> {
+            heading[0] += 0.01;
+            return sensors.cast(robot.getX(), robot.getY(), heading[0])[0];
+        });
+    }
+
+    private static void matchCollisions(MicroBench bench) {
+        // apart: nothing touches, the hash + bounding circles reject everything.
+        // pile: all four overlapping a wall, rotated, so every pair goes through SAT and gets pushed
+        double[][][] layouts = {
+                { { 10, 10, 0.0 }, { 110, 10, 0.5 }, { 10, 110, 1.0 }, { 110, 110, 1.5 } },
+                { { 0, 60, 0.3 }, { 8, 64, 0.9 }, { 4, 70, 1.7 }, { 12, 58, 2.4 } },
+        };
+        String[] names = { "apart", "pile" };
+        for (int l = 0; l < layouts.length; l++) {
+            MatchWorld world = new MatchWorld(0.02);
+            double[][] layout = layouts[l];
+            for (double[] p : layout) world.addRobot(new Robot(1L), null);
+            bench.run("MatchWorld.resolveCollisions", names[l] + " x4", () -> {
+                // put the robots back so every call does the same work
+                for (int i = 0; i < layout.length; i++) {
+                    world.getRobot(i).setPosition(layout[i][0], layout[i][1]);
+                    world.getRobot(i).setHeading(layout[i][2]);
+                }
+                world.resolveCollisions();
+                return world.getRobot(0).getX();
+            });
+        }
+    }
+
+    private static void telemetry(MicroBench bench) {
+        for (int n : TELEMETRY_LINES) {
+            Telemetry telemetry = Telemetry.createHeadless();
+            String[] labels = new String[n];
+            for (int i = 0; i < n; i++) {
+                labels[i] = "Line " + i;
+                telemetry.addLine(labels[i], (double) i);
+            }
+            String last = labels[n - 1];
+            double[] v = { 0.0 };
+            bench.run("Telemetry.addLine", "lines=" + n, () -> {
+                v[0] += 0.01;
+                telemetry.addLine(last, v[0]);
+                return v[0];
+            });
+            Telemetry.DoubleChannel channel = telemetry.doubleChannel(last);
+            bench.run("Telemetry.DoubleChannel.set", "lines=" + n, () -> {
+                v[0] += 0.01;
+                channel.set(v[0]);
+                return v[0];
+            });
+            bench.run("Telemetry.render", "lines=" + n, () -> telemetry.render().length());
+        }
+    }
+
+    private static void fieldPanelPaint(MicroBench bench) {
+        for (int markers : MARKER_COUNTS) {
+            Robot robot = new Robot(1L);
+            robot.setPose(new Pose(60, 40, 0.3));
+            FieldPanel panel = new FieldPanel(robot);
+            panel.setSize(panel.getPreferredSize());
+            for (int i = 0; i < markers; i++) {
+                panel.markPose(new Pose((i * 7) % 144, (i * 13) % 144, 0), Color.YELLOW);
+            }
+            BufferedImage frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            bench.run("FieldPanel.paint", "markers=" + markers, () -> {
+                Graphics2D g2 = frame.createGraphics();
+                panel.paint(g2);
+                g2.dispose();
+                return frame.getRGB(0, 0);
+            });
+        }
+    }
+
+    private static void mainLoop(MicroBench bench) {
+        Main[] main = { newHeadlessMain() };
+        bench.run("Main.loop", "blueFar", () -> {
+            if (main[0].isFinished()) main[0] = newHeadlessMain();
+            main[0].loop();
+            return main[0].getSimTimeSec();
+        });
+    }
+
+    private static Main newHeadlessMain() {
+        Robot robot = new Robot(1L);
+        Telemetry telemetry = Telemetry.createHeadless();
+        Main main = new Main();
+        main.init(robot, new OzPathing(robot, telemetry), null, telemetry, Main.blueFarRoutine());
+        return main;
+    }
+}
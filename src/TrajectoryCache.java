@@ -0,0 +1,92 @@
+import Developer.Pose;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// LRU cache of MotionProfiles keyed on the (start, target) pose pair, the limits and the entry / exit speeds.
+// Routines bounce between the same few poses, so after the first lap every follow() is a lookup.
+// One shared instance, safe to use from parallel batch runs.
+public class TrajectoryCache {
+    private static final TrajectoryCache SHARED = new TrajectoryCache(256);
+
+    private final LinkedHashMap<Key, MotionProfile> profiles;
+    private long hits = 0, misses = 0;
+
+    public TrajectoryCache(int capacity) {
+        profiles = new LinkedHashMap<Key, MotionProfile>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, MotionProfile> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static TrajectoryCache shared() {
+        return SHARED;
+    }
+
+    public MotionProfile get(Pose start, Pose target, double maxSpeed, double accel, double decel) {
+        return get(start, target, maxSpeed, accel, decel, 0.0, 0.0);
+    }
+
+    public MotionProfile get(Pose start, Pose target, double maxSpeed, double accel, double decel,
+                             double startSpeed, double endSpeed) {
+        Key key = new Key(start, target, maxSpeed, accel, decel, startSpeed, endSpeed);
+        synchronized (profiles) {
+            MotionProfile p = profiles.get(key);
+            if (p != null) {
+                hits++;
+                return p;
+            }
+            misses++;
+            p = MotionProfile.plan(start, target, maxSpeed, accel, decel, startSpeed, endSpeed);
+            profiles.put(key, p);
+            return p;
+        }
+    }
+
+    public long getHits() { synchronized (profiles) { return hits; } }
+    public long getMisses() { synchronized (profiles) { return misses; } }
+
+    private static final class Key {
+        private final double sx, sy, sh, tx, ty, th, maxSpeed, accel, decel, v0, v1;
+        private final int hash;
+
+        Key(Pose start, Pose target, double maxSpeed, double accel, double decel, double v0, double v1) {
+            sx = start.x; sy = start.y; sh = start.heading;
+            tx = target.x; ty = target.y; th = target.heading;
+            this.maxSpeed = maxSpeed;
+            this.accel = accel;
+            this.decel = decel;
+            this.v0 = v0;
+            this.v1 = v1;
+            int h = Double.hashCode(sx);
+            h = 31 * h + Double.hashCode(sy);
+            h = 31 * h + Double.hashCode(sh);
+            h = 31 * h + Double.hashCode(tx);
+            h = 31 * h + Double.hashCode(ty);
+            h = 31 * h + Double.hashCode(th);
+            h = 31 * h + Double.hashCode(maxSpeed);
+            h = 31 * h + Double.hashCode(accel);
+            h = 31 * h + Double.hashCode(decel);
+            h = 31 * h + Double.hashCode(v0);
+            hash = 31 * h + Double.hashCode(v1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return Double.compare(sx, k.sx) == 0 && Double.compare(sy, k.sy) == 0 && Double.compare(sh, k.sh) == 0
+                    && Double.compare(tx, k.tx) == 0 && Double.compare(ty, k.ty) == 0 && Double.compare(th, k.th) == 0
+                    && Double.compare(maxSpeed, k.maxSpeed) == 0 && Double.compare(accel, k.accel) == 0
+                    && Double.compare(decel, k.decel) == 0
+                    && Double.compare(v0, k.v0) == 0 && Double.compare(v1, k.v1) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,40 +1,45 @@
 import Developer.Pose;
+import Developer.PoseLibrary;
 
+// Named handles into Developer/Poses.txt, edit the poses there. Red ones without a line of their
+// own are mirrored from Blue. Use PoseLibrary.shared() directly for lookups by name or nearest pose.
 public class savedPoses {
-    public static final Pose BlueGoalStartPose = new Pose(22, 122, Math.toRadians(135));
-    public static final Pose BlueNearParkPose = new Pose(50, 130, Math.toRadians(270));
-    public static final Pose BlueFarStartPose = new Pose(44, 8, Math.toRadians(90)); // Left corner of small triangle
-    public static final Pose BlueMidShootPose = new Pose(57, 83, Math.toRadians(133));// Blue goal scoring pose
-    public static final Pose BlueFarShootPose = new Pose(60, 20, Math.toRadians(110));// Blue goal scoring pose from small triangle
-    public static final Pose BlueFarParkPose = new Pose(43, 12, Math.toRadians(90)); // Blue Home (park)
+    private static final PoseLibrary POSES = PoseLibrary.shared();
+
+    public static final Pose BlueGoalStartPose = POSES.get("BlueGoalStart");
+    public static final Pose BlueNearParkPose = POSES.get("BlueNearPark");
+    public static final Pose BlueFarStartPose = POSES.get("BlueFarStart");
+    public static final Pose BlueMidShootPose = POSES.get("BlueMidShoot");
+    public static final Pose BlueFarShootPose = POSES.get("BlueFarShoot");
+    public static final Pose BlueFarParkPose = POSES.get("BlueFarPark");
 
     // Spike closest to human
-    public static final Pose BlueSpikeAInsidePose = new Pose(48, 31, Math.toRadians(180));
-    public static final Pose BlueSpikeAOutsidePose = new Pose(17, 31, Math.toRadians(180));
+    public static final Pose BlueSpikeAInsidePose = POSES.get("BlueSpikeAInside");
+    public static final Pose BlueSpikeAOutsidePose = POSES.get("BlueSpikeAOutside");
 
     // Middle spike
-    public static final Pose BlueSpikeBInsidePose = new Pose(48, 57, Math.toRadians(180));;
-    public static final Pose BlueSpikeBOutsidePose = new Pose(17, 57, Math.toRadians(180));
+    public static final Pose BlueSpikeBInsidePose = POSES.get("BlueSpikeBInside");
+    public static final Pose BlueSpikeBOutsidePose = POSES.get("BlueSpikeBOutside");
 
     //Farthest Spike
-    public static final Pose BlueSpikeCInsidePose = new Pose(48, 81, Math.toRadians(180));
-    public static final Pose BlueSpikeCOutsidePose = new Pose(17, 81, Math.toRadians(180));
+    public static final Pose BlueSpikeCInsidePose = POSES.get("BlueSpikeCInside");
+    public static final Pose BlueSpikeCOutsidePose = POSES.get("BlueSpikeCOutside");
     //----------------------------------------------------------
 
     //------------Red-----------------
-    public static final Pose RedFarStartPose =  new Pose(100, 8, Math.toRadians(90));
-    public static final Pose RedMidShootPose = new Pose(85, 81, Math.toRadians(45));// Red goal scoring pose
+    public static final Pose RedFarStartPose = POSES.get("RedFarStart");
+    public static final Pose RedMidShootPose = POSES.get("RedMidShoot");
 
-    public static final Pose RedFarShootPose =  new Pose(84, 20, Math.toRadians(64)); // Red goal scoring pose from small triangle
-    public static final Pose RedFarParkPose = new Pose(101, 12, Math.toRadians(90)); // Red Home (park)
+    public static final Pose RedFarShootPose = POSES.get("RedFarShoot");
+    public static final Pose RedFarParkPose = POSES.get("RedFarPark");
 
-    public static final Pose RedSpikeAInsidePose = new Pose(105, 32, Math.toRadians(0)); // closest to human 23
-    public static final Pose RedSpikeAOutsidePose = new Pose(124, 32, Math.toRadians(0));
+    public static final Pose RedSpikeAInsidePose = POSES.get("RedSpikeAInside");
+    public static final Pose RedSpikeAOutsidePose = POSES.get("RedSpikeAOutside");
 
-    public static final Pose RedSpikeBInsidePose = new Pose(105, 57, Math.toRadians(0)); // secount clostest 22
-    public static final Pose RedSpikeBOutsidePose = new Pose(124, 57, Math.toRadians(0));
+    public static final Pose RedSpikeBInsidePose = POSES.get("RedSpikeBInside");
+    public static final Pose RedSpikeBOutsidePose = POSES.get("RedSpikeBOutside");
 
-    public static final Pose RedSpikeCInsidePose = new Pose(105, 81, Math.toRadians(0)); // third closest 21
-    public static final Pose RedSpikeCOutsidePose = new Pose(124, 81, Math.toRadians(0));
+    public static final Pose RedSpikeCInsidePose = POSES.get("RedSpikeCInside");
+    public static final Pose RedSpikeCOutsidePose = POSES.get("RedSpikeCOutside");
 
 }